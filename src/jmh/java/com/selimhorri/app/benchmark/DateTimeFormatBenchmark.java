@@ -0,0 +1,63 @@
+package com.selimhorri.app.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.selimhorri.app.constant.AppConstant;
+
+/**
+ * Formatting and parsing with {@link AppConstant#LOCAL_DATE_TIME_FORMAT}, with a shared
+ * formatter against one built per call, as the path-variable endpoints do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateTimeFormatBenchmark {
+	
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(AppConstant.LOCAL_DATE_TIME_FORMAT);
+	
+	private LocalDateTime likeDate;
+	private String formatted;
+	
+	@Setup
+	public void setUp() {
+		this.likeDate = LocalDateTime.of(2025, 6, 10, 13, 12, 22, 606_444_000);
+		this.formatted = FORMATTER.format(this.likeDate);
+	}
+	
+	@Benchmark
+	public String formatSharedFormatter() {
+		return FORMATTER.format(this.likeDate);
+	}
+	
+	@Benchmark
+	public String formatFormatterPerCall() {
+		return DateTimeFormatter.ofPattern(AppConstant.LOCAL_DATE_TIME_FORMAT).format(this.likeDate);
+	}
+	
+	@Benchmark
+	public LocalDateTime parseSharedFormatter() {
+		return LocalDateTime.parse(this.formatted, FORMATTER);
+	}
+	
+	@Benchmark
+	public LocalDateTime parseFormatterPerCall() {
+		return LocalDateTime.parse(this.formatted, DateTimeFormatter.ofPattern(AppConstant.LOCAL_DATE_TIME_FORMAT));
+	}
+	
+}
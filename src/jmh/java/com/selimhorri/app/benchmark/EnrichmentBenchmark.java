@@ -0,0 +1,139 @@
+package com.selimhorri.app.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.client.CoalescingLookupClient;
+import com.selimhorri.app.config.client.ClientConfig;
+import com.selimhorri.app.config.client.HttpClientProperties;
+import com.selimhorri.app.config.enrichment.EnrichmentConfig;
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+import com.selimhorri.app.domain.Favourite;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.FavouriteExpansion;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
+import com.selimhorri.app.service.FavouriteEnrichmentService;
+import com.selimhorri.app.service.impl.FavouriteEnrichmentServiceImpl;
+import com.selimhorri.app.stub.StubDownstreamServer;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The findAll pipeline after the query: mapping rows to DTOs and enriching them through
+ * the production client stack against a local stub of USER-SERVICE and PRODUCT-SERVICE.
+ * A {@code cold} cache never holds an entry, so every distinct id costs an HTTP call,
+ * made through either {@code HttpURLConnection} ({@code simple}) or the pooled client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnrichmentBenchmark {
+	
+	@Param({ "10", "100", "1000" })
+	private int size;
+	
+	@Param({ "cold", "warm" })
+	private String cache;
+	
+	@Param({ "simple", "pooled" })
+	private String client;
+	
+	private StubDownstreamServer stub;
+	private ThreadPoolTaskExecutor executor;
+	private CoalescingLookupClient<UserDto> userLookupClient;
+	private CoalescingLookupClient<ProductDto> productLookupClient;
+	private FavouriteEnrichmentService enrichmentService;
+	private List<Favourite> favourites;
+	
+	@Setup
+	public void setUp() throws IOException {
+		this.stub = StubDownstreamServer.start();
+		
+		final EnrichmentProperties enrichmentProperties = new EnrichmentProperties();
+		if ("cold".equals(this.cache)) {
+			enrichmentProperties.getUser().getCache().setTtl(Duration.ZERO);
+			enrichmentProperties.getUser().getCache().setMaxStale(Duration.ZERO);
+			enrichmentProperties.getProduct().getCache().setTtl(Duration.ZERO);
+			enrichmentProperties.getProduct().getCache().setMaxStale(Duration.ZERO);
+		}
+		
+		this.executor = new EnrichmentConfig().enrichmentExecutorBean(enrichmentProperties);
+		this.executor.initialize();
+		
+		final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		final ClientConfig clientConfig = new ClientConfig();
+		final RestTemplate restTemplate = "pooled".equals(this.client)
+				? this.stub.restTemplate(clientConfig.pooledClientHttpRequestFactoryBean(
+						new HttpClientProperties(), new StaticListableBeanFactory().getBeanProvider(DiscoveryClient.class),
+						meterRegistry))
+				: this.stub.restTemplate();
+		final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+		final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+		final TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.ofDefaults();
+		this.userLookupClient = clientConfig.userLookupClientBean(restTemplate, this.executor, enrichmentProperties,
+				circuitBreakerRegistry, bulkheadRegistry, timeLimiterRegistry, meterRegistry);
+		this.productLookupClient = clientConfig.productLookupClientBean(restTemplate, this.executor, enrichmentProperties,
+				circuitBreakerRegistry, bulkheadRegistry, timeLimiterRegistry, meterRegistry);
+		this.enrichmentService = new FavouriteEnrichmentServiceImpl(
+				clientConfig.userNearCacheBean(this.userLookupClient, enrichmentProperties, meterRegistry),
+				clientConfig.productNearCacheBean(this.productLookupClient, enrichmentProperties, meterRegistry),
+				enrichmentProperties);
+		
+		// Ten favourites per user, spread over a tenth as many products
+		final LocalDateTime likeDate = LocalDateTime.of(2024, 1, 15, 10, 30);
+		this.favourites = new ArrayList<>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			this.favourites.add(Favourite.builder()
+					.userId(1 + i / 10)
+					.productId(1 + i % Math.max(1, this.size / 10))
+					.likeDate(likeDate.plusMinutes(i))
+					.build());
+		}
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.userLookupClient.close();
+		this.productLookupClient.close();
+		this.executor.shutdown();
+		this.stub.close();
+	}
+	
+	@Benchmark
+	public List<FavouriteDto> mapAndEnrich() {
+		return this.enrichmentService.enrich(this.favourites.stream()
+				.map(FavouriteMappingHelper::project)
+				.collect(Collectors.toList()), FavouriteExpansion.ALL);
+	}
+	
+}
@@ -0,0 +1,83 @@
+package com.selimhorri.app.benchmark;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.helper.FavouriteIdCodec;
+
+/**
+ * Parsing the {@code /{userId}/{productId}/{likeDate}} path variables as they are bound now,
+ * the like date with {@link FavouriteIdCodec}, against the former resource code: URL decoding, a formatter
+ * built per request and exceptions for bad input. Run with {@code -prof gc} to compare
+ * allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FavouriteIdCodecBenchmark {
+	
+	private String userId = "1";
+	private String productId = "100";
+	private String likeDate = "10-06-2025__13:12:22:606444";
+	private String invalidLikeDate = "10-13-2025__13:12:22:606444";
+	
+	@Benchmark
+	public FavouriteId codecValid() {
+		return codec(this.userId, this.productId, this.likeDate);
+	}
+	
+	@Benchmark
+	public FavouriteId legacyValid() {
+		return legacy(this.userId, this.productId, this.likeDate);
+	}
+	
+	@Benchmark
+	public FavouriteId codecInvalid() {
+		return codec(this.userId, this.productId, this.invalidLikeDate);
+	}
+	
+	@Benchmark
+	public FavouriteId legacyInvalid() {
+		return legacy(this.userId, this.productId, this.invalidLikeDate);
+	}
+	
+	private static FavouriteId codec(final String userId, final String productId, final String likeDate) {
+		final LocalDateTime parsedDate = FavouriteIdCodec.parseLikeDate(likeDate);
+		if (parsedDate == null)
+			return null;
+		return new FavouriteId(Integer.parseInt(userId), Integer.parseInt(productId), parsedDate);
+	}
+	
+	private static FavouriteId legacy(final String userId, final String productId, final String likeDate) {
+		try {
+			final String decodedLikeDate = URLDecoder.decode(likeDate, StandardCharsets.UTF_8.name());
+			final LocalDateTime parsedDate = LocalDateTime.parse(decodedLikeDate,
+					DateTimeFormatter.ofPattern(AppConstant.LOCAL_DATE_TIME_FORMAT));
+			return new FavouriteId(Integer.parseInt(userId), Integer.parseInt(productId), parsedDate);
+		}
+		catch (DateTimeParseException | IllegalArgumentException | UnsupportedEncodingException e) {
+			return null;
+		}
+	}
+	
+}
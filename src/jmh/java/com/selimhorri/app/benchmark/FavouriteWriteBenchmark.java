@@ -0,0 +1,170 @@
+package com.selimhorri.app.benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.FavouriteServiceApplication;
+import com.selimhorri.app.domain.Favourite;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
+import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.FavouriteService;
+
+/**
+ * Saving and then deleting one favourite against the in-memory H2 database of the test
+ * profile, counting the JDBC statements each takes. {@code entity} goes through
+ * {@code existsById}, {@code save} and {@code deleteById} of the repository, as the
+ * service used to; {@code statement} goes through the service's single-statement writes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FavouriteWriteBenchmark {
+
+	private static final AtomicLong STATEMENTS = new AtomicLong();
+
+	@Param({ "entity", "statement" })
+	private String path;
+
+	private ConfigurableApplicationContext context;
+	private FavouriteRepository favouriteRepository;
+	private FavouriteService favouriteService;
+	private TransactionTemplate transactionTemplate;
+	private final LocalDateTime likeDate = LocalDateTime.of(2024, 1, 15, 10, 30);
+	private int productId;
+
+	/**
+	 * Totals over the measured iterations; statements per save or delete are
+	 * {@code saveStatements} or {@code deleteStatements} over {@code operations}.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Statements {
+
+		public long operations;
+		public long saveStatements;
+		public long deleteStatements;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			this.operations = 0L;
+			this.saveStatements = 0L;
+			this.deleteStatements = 0L;
+		}
+
+	}
+
+	@Setup
+	public void setUp() {
+		this.context = new SpringApplicationBuilder(FavouriteServiceApplication.class)
+				.web(WebApplicationType.NONE)
+				.profiles("test")
+				.properties("spring.jpa.show-sql=false", "logging.level.root=WARN")
+				.initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+
+					@Override
+					public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+						return bean instanceof DataSource ? counting((DataSource) bean) : bean;
+					}
+
+				}))
+				.run();
+		this.favouriteRepository = this.context.getBean(FavouriteRepository.class);
+		this.favouriteService = this.context.getBean(FavouriteService.class);
+		this.transactionTemplate = new TransactionTemplate(this.context.getBean(PlatformTransactionManager.class));
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public void saveThenDelete(final Statements statements) {
+		final FavouriteId favouriteId = new FavouriteId(1, ++this.productId, this.likeDate);
+
+		final long start = STATEMENTS.get();
+		if ("entity".equals(this.path))
+			this.transactionTemplate.executeWithoutResult(status -> {
+				this.favouriteRepository.existsById(favouriteId);
+				this.favouriteRepository.save(Favourite.builder()
+						.userId(favouriteId.getUserId())
+						.productId(favouriteId.getProductId())
+						.likeDate(favouriteId.getLikeDate())
+						.build());
+			});
+		else
+			this.favouriteService.save(FavouriteMappingHelper.project(favouriteId));
+		final long saved = STATEMENTS.get();
+
+		if ("entity".equals(this.path))
+			this.transactionTemplate.executeWithoutResult(status -> this.favouriteRepository.deleteById(favouriteId));
+		else
+			this.favouriteService.deleteById(favouriteId);
+
+		statements.saveStatements += saved - start;
+		statements.deleteStatements += STATEMENTS.get() - saved;
+		statements.operations++;
+	}
+
+	/**
+	 * Wraps the data source so that every statement prepared on its connections is counted.
+	 */
+	private static DataSource counting(final DataSource dataSource) {
+		return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] { DataSource.class },
+				(proxy, method, args) -> {
+					final Object result = invoke(dataSource, method, args);
+					if (!(result instanceof Connection))
+						return result;
+					final Connection connection = (Connection) result;
+					return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+							(connectionProxy, connectionMethod, connectionArgs) -> {
+								if (connectionMethod.getName().startsWith("prepare")
+										|| "createStatement".equals(connectionMethod.getName()))
+									STATEMENTS.incrementAndGet();
+								return invoke(connection, connectionMethod, connectionArgs);
+							});
+				});
+	}
+
+	private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.selimhorri.app.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.selimhorri.app.domain.Favourite;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
+
+/**
+ * Cost of one {@link FavouriteMappingHelper} call per direction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+	
+	private Favourite favourite;
+	private FavouriteDto favouriteDto;
+	private FavouriteId favouriteId;
+	
+	@Setup
+	public void setUp() {
+		final LocalDateTime likeDate = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000);
+		this.favourite = Favourite.builder()
+				.userId(1)
+				.productId(100)
+				.likeDate(likeDate)
+				.build();
+		this.favouriteDto = FavouriteMappingHelper.map(this.favourite);
+		this.favouriteId = new FavouriteId(1, 100, likeDate);
+	}
+	
+	@Benchmark
+	public FavouriteDto entityToDto() {
+		return FavouriteMappingHelper.map(this.favourite);
+	}
+	
+	@Benchmark
+	public Favourite dtoToEntity() {
+		return FavouriteMappingHelper.map(this.favouriteDto);
+	}
+	
+	@Benchmark
+	public FavouriteDto idToDto() {
+		return FavouriteMappingHelper.map(this.favouriteId);
+	}
+	
+}
@@ -0,0 +1,138 @@
+package com.selimhorri.app.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.selimhorri.app.config.mapper.MapperConfig;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+/**
+ * Serialization of an enriched {@code DtoCollectionResponse<FavouriteDto>}, as served by
+ * findAll, with each wire format {@link MapperConfig} offers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+	
+	/** Distinct users and products referenced by the rows, as in a real catalogue. */
+	private static final int DISTINCT_IDS = 1_000;
+	
+	@Param({ "10", "1000", "100000", "1000000" })
+	private int size;
+	
+	private DtoCollectionResponse<FavouriteDto> response;
+	private ObjectWriter indentedWriter;
+	private ObjectWriter compactWriter;
+	private ObjectWriter smileWriter;
+	private ObjectWriter cborWriter;
+	
+	@Setup
+	public void setUp() {
+		final MapperConfig mapperConfig = new MapperConfig();
+		this.indentedWriter = mapperConfig.objectMapperBean(true).writer();
+		this.compactWriter = mapperConfig.objectMapperBean(false).writer();
+		this.smileWriter = mapperConfig.smileHttpMessageConverterBean().getObjectMapper().writer();
+		this.cborWriter = mapperConfig.cborHttpMessageConverterBean().getObjectMapper().writer();
+		
+		final UserDto[] users = new UserDto[DISTINCT_IDS];
+		final ProductDto[] products = new ProductDto[DISTINCT_IDS];
+		for (int i = 0; i < DISTINCT_IDS; i++) {
+			users[i] = UserDto.builder()
+					.userId(i)
+					.firstName("First" + i)
+					.lastName("Last" + i)
+					.imageUrl("https://img.example.com/users/" + i + ".png")
+					.email("user" + i + "@example.com")
+					.phone("+1000000" + i)
+					.build();
+			products[i] = ProductDto.builder()
+					.productId(i)
+					.productTitle("Product " + i)
+					.imageUrl("https://img.example.com/products/" + i + ".png")
+					.sku("SKU-" + i)
+					.priceUnit(19.99)
+					.quantity(10)
+					.build();
+		}
+		
+		final LocalDateTime likeDate = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000);
+		final List<FavouriteDto> favouriteDtos = new ArrayList<>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			favouriteDtos.add(FavouriteDto.builder()
+					.userId(i % DISTINCT_IDS)
+					.productId((i / DISTINCT_IDS) % DISTINCT_IDS)
+					.likeDate(likeDate.plusSeconds(i))
+					.userDto(users[i % DISTINCT_IDS])
+					.productDto(products[(i / DISTINCT_IDS) % DISTINCT_IDS])
+					.build());
+		}
+		this.response = new DtoCollectionResponse<>(favouriteDtos);
+	}
+	
+	@Benchmark
+	public long indentedJson() throws IOException {
+		return write(this.indentedWriter, this.response);
+	}
+	
+	@Benchmark
+	public long compactJson() throws IOException {
+		return write(this.compactWriter, this.response);
+	}
+	
+	@Benchmark
+	public long smile() throws IOException {
+		return write(this.smileWriter, this.response);
+	}
+	
+	@Benchmark
+	public long cbor() throws IOException {
+		return write(this.cborWriter, this.response);
+	}
+	
+	private static long write(final ObjectWriter writer, final Object value) throws IOException {
+		final CountingOutputStream out = new CountingOutputStream();
+		writer.writeValue(out, value);
+		return out.count;
+	}
+	
+	private static final class CountingOutputStream extends OutputStream {
+		
+		private long count;
+		
+		@Override
+		public void write(final int b) {
+			this.count++;
+		}
+		
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			this.count += len;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,401 @@
+package com.selimhorri.app.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Looks up DTOs of one downstream service by id.
+ * <p>
+ * Concurrent lookups for the same id share a single in-flight call. When the service
+ * exposes a batch endpoint, ids arriving within the batch window are sent together;
+ * otherwise (or once the endpoint turns out to be missing) ids are fetched one by one.
+ * <p>
+ * Calls run behind the service's own resilience4j guards: the bulkhead caps the calls
+ * running on the executor at any time, the time limiter fails lookups that take too long,
+ * and while the circuit breaker is open lookups fail at once, without touching the network.
+ * With hedging enabled, a single-key call still pending after the {@link HedgingPolicy}
+ * delay is raced by a second one, and the first answer wins.
+ */
+@Slf4j
+public class CoalescingLookupClient<V> implements AutoCloseable {
+
+	private final String name;
+	private final String apiUrl;
+	private final Class<V> type;
+	private final Function<V, Integer> idExtractor;
+	private final EnrichmentProperties.Downstream downstream;
+	private final CircuitBreaker circuitBreaker;
+	private final Bulkhead bulkhead;
+	private final TimeLimiter timeLimiter;
+	private final RestTemplate restTemplate;
+	private final Executor executor;
+	private final ParameterizedTypeReference<DtoCollectionResponse<V>> batchType;
+
+	private final ConcurrentMap<Integer, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final Queue<List<Integer>> waiting = new ConcurrentLinkedQueue<>();
+	private final Object batchLock = new Object();
+	private List<Integer> batch = new ArrayList<>();
+	private final ScheduledExecutorService scheduler;
+	private final HedgingPolicy hedging;
+	private volatile boolean batchSupported;
+
+	private final Counter issued;
+	private final Counter coalesced;
+	private final Counter batches;
+
+	public CoalescingLookupClient(
+			final String name,
+			final String apiUrl,
+			final Class<V> type,
+			final Function<V, Integer> idExtractor,
+			final EnrichmentProperties.Downstream downstream,
+			final CircuitBreaker circuitBreaker,
+			final Bulkhead bulkhead,
+			final TimeLimiter timeLimiter,
+			final RestTemplate restTemplate,
+			final Executor executor,
+			final MeterRegistry meterRegistry) {
+		this.name = name;
+		this.apiUrl = apiUrl;
+		this.type = type;
+		this.idExtractor = idExtractor;
+		this.downstream = downstream;
+		this.circuitBreaker = circuitBreaker;
+		this.bulkhead = bulkhead;
+		this.timeLimiter = timeLimiter;
+		this.restTemplate = restTemplate;
+		this.executor = executor;
+		this.batchType = ParameterizedTypeReference.forType(
+				ResolvableType.forClassWithGenerics(DtoCollectionResponse.class, type).getType());
+		this.batchSupported = downstream.getBatchUrl() != null && !downstream.getBatchUrl().isBlank();
+		this.hedging = new HedgingPolicy(name, downstream.getHedging(), meterRegistry);
+		this.scheduler = this.batchSupported || this.hedging.isEnabled()
+				? Executors.newSingleThreadScheduledExecutor(r -> {
+					final Thread thread = new Thread(r, "lookup-timer-" + name);
+					thread.setDaemon(true);
+					return thread;
+				})
+				: null;
+
+		this.issued = Counter.builder("favourite.enrichment.lookups")
+				.description("Lookups that started a downstream call")
+				.tag("service", name)
+				.tag("outcome", "issued")
+				.register(meterRegistry);
+		this.coalesced = Counter.builder("favourite.enrichment.lookups")
+				.description("Lookups that joined a call already in flight")
+				.tag("service", name)
+				.tag("outcome", "coalesced")
+				.register(meterRegistry);
+		this.batches = Counter.builder("favourite.enrichment.batches")
+				.description("Batch requests sent downstream")
+				.tag("service", name)
+				.register(meterRegistry);
+		Gauge.builder("favourite.enrichment.coalescing.ratio", this, CoalescingLookupClient::coalescingRatio)
+				.description("Share of lookups served by a call already in flight")
+				.tag("service", name)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Returns the pending lookup of the given id, starting one when none is in flight.
+	 * The future completes with {@code null} when the service does not know the id and
+	 * exceptionally when the call fails, times out or is not permitted by the circuit
+	 * breaker. Callers must not cancel it: it may be shared.
+	 */
+	public CompletableFuture<V> fetch(final Integer id) {
+		final boolean[] created = new boolean[1];
+		final CompletableFuture<V> future = this.inFlight.computeIfAbsent(id, key -> {
+			created[0] = true;
+			return new CompletableFuture<>();
+		});
+		if (!created[0]) {
+			this.coalesced.increment();
+			return future;
+		}
+
+		if (!this.circuitBreaker.tryAcquirePermission()) {
+			this.inFlight.remove(id, future);
+			future.completeExceptionally(CallNotPermittedException.createCallNotPermittedException(this.circuitBreaker));
+			return future;
+		}
+		this.issued.increment();
+		this.guard(id, future);
+		this.schedule(id);
+		return future;
+	}
+
+	public Map<Integer, CompletableFuture<V>> fetchAll(final Collection<Integer> ids) {
+		final Map<Integer, CompletableFuture<V>> futures = new LinkedHashMap<>(ids.size() * 2);
+		ids.forEach(id -> futures.computeIfAbsent(id, this::fetch));
+		return futures;
+	}
+
+	public double coalescingRatio() {
+		final double total = this.issued.count() + this.coalesced.count();
+		return total == 0 ? 0 : this.coalesced.count() / total;
+	}
+
+	@Override
+	public void close() {
+		if (this.scheduler != null)
+			this.scheduler.shutdownNow();
+	}
+
+	/**
+	 * Bounds the lookup by the time limiter and reports its outcome to the circuit breaker.
+	 * A lookup that timed out is forgotten, so the next fetch of the id starts afresh.
+	 */
+	private void guard(final Integer id, final CompletableFuture<V> future) {
+		final long start = System.nanoTime();
+		future.orTimeout(this.timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toNanos(), TimeUnit.NANOSECONDS)
+				.whenComplete((value, e) -> {
+					final long elapsed = System.nanoTime() - start;
+					if (e == null) {
+						this.timeLimiter.onSuccess();
+						this.circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+						return;
+					}
+					if (e instanceof TimeoutException) {
+						this.inFlight.remove(id, future);
+						this.timeLimiter.onError(e);
+					}
+					this.circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, e);
+				});
+	}
+
+	private void schedule(final Integer id) {
+		if (!this.batchSupported) {
+			this.enqueue(List.of(id));
+			return;
+		}
+
+		List<Integer> ready = null;
+		synchronized (this.batchLock) {
+			this.batch.add(id);
+			if (this.batch.size() >= this.downstream.getMaxBatchSize()) {
+				ready = this.batch;
+				this.batch = new ArrayList<>();
+			}
+			else if (this.batch.size() == 1) {
+				this.scheduler.schedule(this::flushBatch,
+						this.downstream.getBatchWindow().toNanos(), TimeUnit.NANOSECONDS);
+			}
+		}
+		if (ready != null)
+			this.enqueue(ready);
+	}
+
+	private void flushBatch() {
+		final List<Integer> ready;
+		synchronized (this.batchLock) {
+			if (this.batch.isEmpty())
+				return;
+			ready = this.batch;
+			this.batch = new ArrayList<>();
+		}
+		this.enqueue(ready);
+	}
+
+	private void enqueue(final List<Integer> ids) {
+		this.waiting.add(ids);
+		this.drain();
+	}
+
+	/**
+	 * Hands waiting calls to the executor while the bulkhead has room for them.
+	 */
+	private void drain() {
+		while (true) {
+			if (!this.bulkhead.tryAcquirePermission())
+				return;
+
+			final List<Integer> ids = this.waiting.poll();
+			if (ids == null) {
+				this.bulkhead.onComplete();
+				// A call may have been queued between poll() and the decrement
+				if (this.waiting.isEmpty())
+					return;
+				continue;
+			}
+
+			try {
+				this.executor.execute(() -> {
+					try {
+						this.load(ids);
+					}
+					finally {
+						this.bulkhead.onComplete();
+						this.drain();
+					}
+				});
+			}
+			catch (RejectedExecutionException e) {
+				this.bulkhead.onComplete();
+				log.warn("Enrichment executor saturated, skipping {} {}", this.name, ids);
+				ids.forEach(id -> this.fail(id, e));
+			}
+		}
+	}
+
+	private void load(final List<Integer> ids) {
+		if (ids.size() > 1 && this.batchSupported) {
+			this.loadBatch(ids);
+			return;
+		}
+		ids.forEach(this::loadOne);
+	}
+
+	private void loadOne(final Integer id) {
+		final CompletableFuture<V> future = this.inFlight.get(id);
+		if (future == null)
+			return;
+
+		final AtomicInteger attempts = new AtomicInteger(1);
+		if (!this.hedging.isEnabled()) {
+			this.call(id, future, attempts, false);
+			return;
+		}
+		this.hedging.onCall();
+		final ScheduledFuture<?> hedge = this.scheduler.schedule(() -> this.hedge(id, future, attempts),
+				this.hedging.delayNanos(), TimeUnit.NANOSECONDS);
+		this.call(id, future, attempts, false);
+		hedge.cancel(false);
+	}
+
+	/**
+	 * Sends a second call for a lookup still pending, if the bulkhead and the hedging budget allow.
+	 */
+	private void hedge(final Integer id, final CompletableFuture<V> future, final AtomicInteger attempts) {
+		if (future.isDone() || !this.bulkhead.tryAcquirePermission())
+			return;
+		if (!this.hedging.tryHedge()) {
+			this.bulkhead.onComplete();
+			return;
+		}
+
+		attempts.incrementAndGet();
+		try {
+			this.executor.execute(() -> {
+				try {
+					this.call(id, future, attempts, true);
+				}
+				finally {
+					this.bulkhead.onComplete();
+					this.drain();
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			this.bulkhead.onComplete();
+			this.failAttempt(id, future, attempts, e);
+		}
+	}
+
+	private void call(final Integer id, final CompletableFuture<V> future, final AtomicInteger attempts,
+			final boolean hedged) {
+		final long start = System.nanoTime();
+		try {
+			final V value = this.restTemplate.getForObject(this.apiUrl + "/" + id, this.type);
+			this.hedging.recordLatency(System.nanoTime() - start);
+			this.inFlight.remove(id, future);
+			if (future.complete(value) && hedged)
+				this.hedging.onHedgeWon();
+		}
+		catch (HttpClientErrorException.NotFound e) {
+			// An unknown id is an answer, as in a batch response that leaves it out
+			this.hedging.recordLatency(System.nanoTime() - start);
+			this.inFlight.remove(id, future);
+			if (future.complete(null) && hedged)
+				this.hedging.onHedgeWon();
+		}
+		catch (Exception e) {
+			log.error("Error fetching {} {}: {}", this.name, id, e.getMessage());
+			this.failAttempt(id, future, attempts, e);
+		}
+	}
+
+	/**
+	 * Fails the lookup once none of its calls is left running.
+	 */
+	private void failAttempt(final Integer id, final CompletableFuture<V> future, final AtomicInteger attempts,
+			final Throwable cause) {
+		if (attempts.decrementAndGet() > 0)
+			return;
+		this.inFlight.remove(id, future);
+		future.completeExceptionally(cause);
+	}
+
+	private void loadBatch(final List<Integer> ids) {
+		try {
+			this.batches.increment();
+			final DtoCollectionResponse<V> response = this.restTemplate.exchange(
+					this.downstream.getBatchUrl() + "?ids=" + ids.stream().map(String::valueOf).collect(Collectors.joining(",")),
+					HttpMethod.GET, null, this.batchType).getBody();
+			final Map<Integer, V> found = new LinkedHashMap<>(ids.size() * 2);
+			if (response != null && response.getCollection() != null)
+				response.getCollection().forEach(v -> found.put(this.idExtractor.apply(v), v));
+			ids.forEach(id -> this.complete(id, found.get(id)));
+		}
+		catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed
+				| HttpServerErrorException.NotImplemented e) {
+			log.warn("Batch lookup unavailable for {}, falling back to single-key calls: {}", this.name, e.getMessage());
+			this.batchSupported = false;
+			ids.forEach(id -> this.waiting.add(List.of(id)));
+		}
+		catch (Exception e) {
+			log.error("Error fetching {} batch {}: {}", this.name, ids, e.getMessage());
+			ids.forEach(id -> this.fail(id, e));
+		}
+	}
+
+	private void complete(final Integer id, final V value) {
+		final CompletableFuture<V> future = this.inFlight.remove(id);
+		if (future != null)
+			future.complete(value);
+	}
+
+	private void fail(final Integer id, final Throwable cause) {
+		final CompletableFuture<V> future = this.inFlight.remove(id);
+		if (future != null)
+			future.completeExceptionally(cause);
+	}
+
+}
@@ -0,0 +1,183 @@
+package com.selimhorri.app.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Decides when a slow lookup of one downstream service is raced by a second call.
+ * <p>
+ * The delay tracks the configured latency percentile of recent calls, so only the
+ * slowest few percent of lookups are hedged. Every primary call earns {@code budget}
+ * of a hedge and every hedge spends a whole one, which caps the extra load at that
+ * share of the traffic however slow the service gets.
+ * <p>
+ * The percentile only covers the calls of the last minute or so, as the timer rotates
+ * {@value #WINDOW_BUFFERS} buffers through that window, so the calls counted against
+ * {@code minSamples} rotate through buffers of their own on the same schedule.
+ */
+public class HedgingPolicy {
+
+	private static final long CREDIT_UNIT = 1_000L;
+	private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final Duration WINDOW = Duration.ofMinutes(1);
+	private static final int WINDOW_BUFFERS = 3;
+	private static final long WINDOW_STEP_NANOS = WINDOW.toNanos() / WINDOW_BUFFERS;
+
+	private final EnrichmentProperties.Hedging settings;
+	private final Clock clock;
+	private final Timer latency;
+	private final Counter fired;
+	private final Counter won;
+	private final Counter denied;
+
+	private final long creditPerCall;
+	private final long maxCredit;
+	private final AtomicLong credit = new AtomicLong();
+
+	/** Calls timed into each buffer since it was last cleared; the one at windowIndex is read. */
+	private final AtomicLongArray windowCounts = new AtomicLongArray(WINDOW_BUFFERS);
+	private volatile int windowIndex;
+	private volatile long windowRotatedAt;
+
+	private volatile long delayNanos;
+	private volatile long delayComputedAt;
+	private volatile boolean delayComputed;
+
+	public HedgingPolicy(final String name, final EnrichmentProperties.Hedging settings, final MeterRegistry meterRegistry) {
+		this.settings = settings;
+		this.clock = meterRegistry.config().clock();
+		this.windowRotatedAt = this.clock.monotonicTime();
+		this.creditPerCall = Math.round(settings.getBudget() * CREDIT_UNIT);
+		this.maxCredit = settings.getMaxBurst() * CREDIT_UNIT;
+
+		this.latency = Timer.builder("favourite.enrichment.call.duration")
+				.description("Duration of successful single-key calls")
+				.tag("service", name)
+				.publishPercentiles(settings.getPercentile())
+				.percentilePrecision(2)
+				.distributionStatisticExpiry(WINDOW)
+				.distributionStatisticBufferLength(WINDOW_BUFFERS)
+				.register(meterRegistry);
+		this.fired = Counter.builder("favourite.enrichment.hedges")
+				.description("Hedged calls sent after the primary call ran past the hedging delay")
+				.tag("service", name)
+				.tag("outcome", "fired")
+				.register(meterRegistry);
+		this.won = Counter.builder("favourite.enrichment.hedges")
+				.description("Hedged calls that answered before the primary call")
+				.tag("service", name)
+				.tag("outcome", "won")
+				.register(meterRegistry);
+		this.denied = Counter.builder("favourite.enrichment.hedges")
+				.description("Hedges not sent because the hedging budget was spent")
+				.tag("service", name)
+				.tag("outcome", "denied")
+				.register(meterRegistry);
+		Gauge.builder("favourite.enrichment.hedge.delay", this, p -> p.delayNanos() / 1e6)
+				.description("Current hedging delay in milliseconds")
+				.tag("service", name)
+				.register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return this.settings.isEnabled();
+	}
+
+	/**
+	 * Counts a primary call, earning part of a hedge.
+	 */
+	public void onCall() {
+		this.credit.accumulateAndGet(this.creditPerCall, (current, earned) -> Math.min(this.maxCredit, current + earned));
+	}
+
+	public void recordLatency(final long nanos) {
+		this.rotateWindow();
+		this.latency.record(nanos, TimeUnit.NANOSECONDS);
+		for (int i = 0; i < WINDOW_BUFFERS; i++)
+			this.windowCounts.incrementAndGet(i);
+	}
+
+	/**
+	 * Spends a hedge from the budget; returns {@code false}, sending nothing, when none is left.
+	 */
+	public boolean tryHedge() {
+		while (true) {
+			final long current = this.credit.get();
+			if (current < CREDIT_UNIT) {
+				this.denied.increment();
+				return false;
+			}
+			if (this.credit.compareAndSet(current, current - CREDIT_UNIT)) {
+				this.fired.increment();
+				return true;
+			}
+		}
+	}
+
+	public void onHedgeWon() {
+		this.won.increment();
+	}
+
+	/**
+	 * How long a call may run before it is hedged: the latency percentile of recent calls,
+	 * or the initial delay until enough calls have been timed. Recomputed at most once a second.
+	 */
+	public long delayNanos() {
+		final long now = this.clock.monotonicTime();
+		if (this.delayComputed && now - this.delayComputedAt < DELAY_REFRESH_NANOS)
+			return this.delayNanos;
+
+		long delay = this.settings.getInitialDelay().toNanos();
+		if (this.windowCount() >= this.settings.getMinSamples())
+			for (final ValueAtPercentile percentile : this.latency.takeSnapshot().percentileValues())
+				delay = (long) percentile.value(TimeUnit.NANOSECONDS);
+
+		this.delayNanos = Math.max(delay, this.settings.getMinDelay().toNanos());
+		this.delayComputedAt = now;
+		this.delayComputed = true;
+		return this.delayNanos;
+	}
+
+	/**
+	 * Calls timed within the window the latency percentile currently covers.
+	 */
+	long windowCount() {
+		this.rotateWindow();
+		return this.windowCounts.get(this.windowIndex);
+	}
+
+	/**
+	 * Clears the buffer being read and moves on to the next one every third of the window,
+	 * as the timer does with its percentile buffers.
+	 */
+	private void rotateWindow() {
+		final long now = this.clock.monotonicTime();
+		if (now - this.windowRotatedAt < WINDOW_STEP_NANOS)
+			return;
+		synchronized (this.windowCounts) {
+			if (now - this.windowRotatedAt >= WINDOW.toNanos()) {
+				for (int i = 0; i < WINDOW_BUFFERS; i++)
+					this.windowCounts.set(i, 0L);
+				this.windowRotatedAt = now;
+				return;
+			}
+			while (now - this.windowRotatedAt >= WINDOW_STEP_NANOS) {
+				this.windowCounts.set(this.windowIndex, 0L);
+				this.windowIndex = (this.windowIndex + 1) % WINDOW_BUFFERS;
+				this.windowRotatedAt += WINDOW_STEP_NANOS;
+			}
+		}
+	}
+
+}
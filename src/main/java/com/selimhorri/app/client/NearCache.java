@@ -0,0 +1,224 @@
+package com.selimhorri.app.client;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process cache of downstream DTOs in front of a {@link CoalescingLookupClient}.
+ * <p>
+ * Entries younger than {@code ttl} are served as is. Older entries are still served
+ * while a single asynchronous refresh runs, and are the answer of last resort when a
+ * load fails, until they reach {@code maxStale}. The cache is bounded both by entry
+ * count and by the estimated memory of its values; least recently used entries go first.
+ */
+@Slf4j
+public class NearCache<V> {
+
+	private final String name;
+	private final Function<Integer, CompletableFuture<V>> loader;
+	private final ToLongFunction<V> weigher;
+	private final EnrichmentProperties.CacheSettings settings;
+
+	private final LinkedHashMap<Integer, Entry<V>> entries = new LinkedHashMap<>(256, 0.75f, true);
+	private long weight;
+
+	private final Counter hits;
+	private final Counter staleHits;
+	private final Counter misses;
+	private final Counter evictions;
+	private final Timer loads;
+
+	public NearCache(
+			final String name,
+			final Function<Integer, CompletableFuture<V>> loader,
+			final ToLongFunction<V> weigher,
+			final EnrichmentProperties.CacheSettings settings,
+			final MeterRegistry meterRegistry) {
+		this.name = name;
+		this.loader = loader;
+		this.weigher = weigher;
+		this.settings = settings;
+
+		this.hits = Counter.builder("cache.gets")
+				.tag("cache", name)
+				.tag("result", "hit")
+				.register(meterRegistry);
+		this.staleHits = Counter.builder("cache.gets")
+				.tag("cache", name)
+				.tag("result", "stale")
+				.register(meterRegistry);
+		this.misses = Counter.builder("cache.gets")
+				.tag("cache", name)
+				.tag("result", "miss")
+				.register(meterRegistry);
+		this.evictions = Counter.builder("cache.evictions")
+				.tag("cache", name)
+				.register(meterRegistry);
+		this.loads = Timer.builder("cache.load.duration")
+				.tag("cache", name)
+				.register(meterRegistry);
+		Gauge.builder("cache.size", this, NearCache::size)
+				.tag("cache", name)
+				.register(meterRegistry);
+		Gauge.builder("cache.weight.bytes", this, NearCache::weight)
+				.description("Estimated memory held by cached values")
+				.tag("cache", name)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Returns the cached value of the given id, loading it on a miss. A failed load
+	 * falls back to a stale entry when one is still held, and fails otherwise.
+	 */
+	public CompletableFuture<V> get(final Integer id) {
+		final long now = System.nanoTime();
+		final Entry<V> entry = this.lookup(id, now);
+
+		if (entry != null && now - entry.loadedAt < this.settings.getTtl().toNanos()) {
+			this.hits.increment();
+			return CompletableFuture.completedFuture(entry.value);
+		}
+		if (entry != null) {
+			this.staleHits.increment();
+			this.refresh(id, entry);
+			return CompletableFuture.completedFuture(entry.value);
+		}
+
+		this.misses.increment();
+		return this.load(id);
+	}
+
+	public Map<Integer, CompletableFuture<V>> getAll(final Collection<Integer> ids) {
+		final Map<Integer, CompletableFuture<V>> futures = new LinkedHashMap<>(ids.size() * 2);
+		ids.forEach(id -> futures.computeIfAbsent(id, this::get));
+		return futures;
+	}
+
+	public void invalidate(final Integer id) {
+		synchronized (this.entries) {
+			final Entry<V> removed = this.entries.remove(id);
+			if (removed != null)
+				this.weight -= removed.weight;
+		}
+	}
+
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	public long weight() {
+		synchronized (this.entries) {
+			return this.weight;
+		}
+	}
+
+	private CompletableFuture<V> load(final Integer id) {
+		final long start = System.nanoTime();
+		return this.loader.apply(id)
+				.handle((value, e) -> {
+					this.loads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					if (e == null) {
+						if (value != null)
+							this.put(id, value);
+						return value;
+					}
+
+					// Stale-if-error: anything still held beats failing the caller
+					final Entry<V> stale;
+					synchronized (this.entries) {
+						stale = this.entries.get(id);
+					}
+					if (stale != null) {
+						log.warn("Serving stale {} {} after failed load: {}", this.name, id, e.getMessage());
+						return stale.value;
+					}
+					throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+				});
+	}
+
+	private void refresh(final Integer id, final Entry<V> entry) {
+		if (!entry.refreshing.compareAndSet(false, true))
+			return;
+		final long start = System.nanoTime();
+		this.loader.apply(id).whenComplete((value, e) -> {
+			this.loads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			if (e == null && value != null)
+				this.put(id, value);
+			else
+				entry.refreshing.set(false);
+		});
+	}
+
+	private Entry<V> lookup(final Integer id, final long now) {
+		synchronized (this.entries) {
+			final Entry<V> entry = this.entries.get(id);
+			if (entry != null && now - entry.loadedAt >= this.settings.getMaxStale().toNanos()) {
+				this.entries.remove(id);
+				this.weight -= entry.weight;
+				this.evictions.increment();
+				return null;
+			}
+			return entry;
+		}
+	}
+
+	private void put(final Integer id, final V value) {
+		final Entry<V> entry = new Entry<>(value, System.nanoTime(), this.weigher.applyAsLong(value));
+		synchronized (this.entries) {
+			final Entry<V> previous = this.entries.put(id, entry);
+			this.weight += entry.weight - (previous != null ? previous.weight : 0L);
+
+			final Iterator<Entry<V>> eldest = this.entries.values().iterator();
+			while (eldest.hasNext() && (this.entries.size() > this.settings.getMaxEntries()
+					|| this.weight > this.settings.getMaxWeight().toBytes())) {
+				this.weight -= eldest.next().weight;
+				eldest.remove();
+				this.evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * Rough retained size of a DTO: a fixed object overhead plus its strings.
+	 */
+	public static long estimateWeight(final String... values) {
+		long weight = 64L;
+		for (final String value : values)
+			if (value != null)
+				weight += 40L + 2L * value.length();
+		return weight;
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+		private final long loadedAt;
+		private final long weight;
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		private Entry(final V value, final long loadedAt, final long weight) {
+			this.value = value;
+			this.loadedAt = loadedAt;
+			this.weight = weight;
+		}
+
+	}
+
+}
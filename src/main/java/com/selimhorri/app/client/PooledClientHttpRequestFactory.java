@@ -0,0 +1,170 @@
+package com.selimhorri.app.client;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import com.selimhorri.app.config.client.HttpClientProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Request factory backed by a single pooled Apache HttpClient shared by all downstream calls.
+ * <p>
+ * Connections are kept alive between calls and closed once idle for too long. The load
+ * balancer hands this factory resolved instance addresses, so the first call to an address
+ * looks it up in discovery to find the service it belongs to, then applies that service's
+ * connection cap and timeouts to the route. Addresses of unknown services get the defaults.
+ */
+@Slf4j
+public class PooledClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+	private static final String UNKNOWN_SERVICE = "";
+
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final HttpClientProperties properties;
+	private final DiscoveryClient discoveryClient;
+	private final RequestConfig defaultRequestConfig;
+	private final Map<String, RequestConfig> requestConfigs = new ConcurrentHashMap<>();
+	private final ConcurrentMap<HttpRoute, String> routes = new ConcurrentHashMap<>();
+
+	public PooledClientHttpRequestFactory(
+			final HttpClientProperties properties,
+			final DiscoveryClient discoveryClient,
+			final MeterRegistry meterRegistry) {
+		this(properties, discoveryClient, meterRegistry, connectionManager(properties));
+	}
+
+	private PooledClientHttpRequestFactory(
+			final HttpClientProperties properties,
+			final DiscoveryClient discoveryClient,
+			final MeterRegistry meterRegistry,
+			final PoolingHttpClientConnectionManager connectionManager) {
+		super(httpClient(properties, connectionManager));
+		this.connectionManager = connectionManager;
+		this.properties = properties;
+		this.discoveryClient = discoveryClient;
+		this.defaultRequestConfig = requestConfig(properties, new HttpClientProperties.Route());
+		properties.getRoutes().forEach((serviceId, route) ->
+				this.requestConfigs.put(serviceId, requestConfig(properties, route)));
+
+		new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "downstream").bindTo(meterRegistry);
+		properties.getRoutes().keySet().forEach(serviceId -> {
+			this.routeGauge(meterRegistry, serviceId, "leased", PoolStats::getLeased);
+			this.routeGauge(meterRegistry, serviceId, "available", PoolStats::getAvailable);
+			this.routeGauge(meterRegistry, serviceId, "pending", PoolStats::getPending);
+		});
+	}
+
+	@Override
+	protected HttpContext createHttpContext(final HttpMethod httpMethod, final URI uri) {
+		final String serviceId = this.routes.computeIfAbsent(route(uri), this::register);
+		final HttpClientContext context = HttpClientContext.create();
+		context.setRequestConfig(this.requestConfigs.getOrDefault(serviceId, this.defaultRequestConfig));
+		return context;
+	}
+
+	/**
+	 * Connections of all known instances of the given service, in the given state.
+	 */
+	public int connections(final String serviceId, final ToIntFunction<PoolStats> state) {
+		int total = 0;
+		for (final Map.Entry<HttpRoute, String> route : this.routes.entrySet())
+			if (route.getValue().equals(serviceId))
+				total += state.applyAsInt(this.connectionManager.getStats(route.getKey()));
+		return total;
+	}
+
+	private String register(final HttpRoute route) {
+		final HttpHost target = route.getTargetHost();
+		final String serviceId = this.discoveryClient == null
+				? UNKNOWN_SERVICE
+				: this.properties.getRoutes().keySet().stream()
+						.filter(id -> this.discoveryClient.getInstances(id).stream()
+								.anyMatch(instance -> target.getHostName().equalsIgnoreCase(instance.getHost())
+										&& target.getPort() == instance.getPort()))
+						.findFirst()
+						.orElse(UNKNOWN_SERVICE);
+
+		final HttpClientProperties.Route settings = this.properties.getRoutes().get(serviceId);
+		if (settings != null && settings.getMaxPerRoute() != null)
+			this.connectionManager.setMaxPerRoute(route, settings.getMaxPerRoute());
+		log.info("Pooling connections to {} as {} (max {})", target.toHostString(),
+				serviceId.isEmpty() ? "unknown service" : serviceId, this.connectionManager.getMaxPerRoute(route));
+		return serviceId;
+	}
+
+	private void routeGauge(final MeterRegistry meterRegistry, final String serviceId, final String state,
+			final ToIntFunction<PoolStats> stat) {
+		Gauge.builder("httpcomponents.httpclient.pool.route.connections", this, f -> f.connections(serviceId, stat))
+				.description("Pooled connections to the instances of a downstream service")
+				.tag("httpclient", "downstream")
+				.tag("service", serviceId)
+				.tag("state", state)
+				.register(meterRegistry);
+	}
+
+	private static HttpRoute route(final URI uri) {
+		final boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+		final int port = uri.getPort() > 0 ? uri.getPort() : secure ? 443 : 80;
+		return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+	}
+
+	private static PoolingHttpClientConnectionManager connectionManager(final HttpClientProperties properties) {
+		final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(properties.getMaxTotal());
+		connectionManager.setDefaultMaxPerRoute(properties.getDefaultMaxPerRoute());
+		connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+		return connectionManager;
+	}
+
+	private static CloseableHttpClient httpClient(final HttpClientProperties properties,
+			final PoolingHttpClientConnectionManager connectionManager) {
+		final long keepAlive = properties.getKeepAlive().toMillis();
+		final ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+			// A Keep-Alive timeout sent by the server wins when it is shorter than ours
+			final long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return announced > 0 ? Math.min(announced, keepAlive) : keepAlive;
+		};
+		return HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(keepAliveStrategy)
+				.setDefaultRequestConfig(requestConfig(properties, new HttpClientProperties.Route()))
+				.evictExpiredConnections()
+				.evictIdleConnections(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	private static RequestConfig requestConfig(final HttpClientProperties properties,
+			final HttpClientProperties.Route route) {
+		return RequestConfig.custom()
+				.setConnectTimeout((int) (route.getConnectTimeout() != null
+						? route.getConnectTimeout() : properties.getConnectTimeout()).toMillis())
+				.setSocketTimeout((int) (route.getReadTimeout() != null
+						? route.getReadTimeout() : properties.getReadTimeout()).toMillis())
+				.setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+				.build();
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.selimhorri.app.config.archive;
+
+import java.time.Duration;
+import java.time.Period;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Archival of old likes and upkeep of the like date partitions, bound from {@code app.archive.*}.
+ */
+@ConfigurationProperties(prefix = "app.archive")
+@Data
+public class ArchiveProperties {
+	
+	/** Moves likes older than the horizon to the archive table on every run. */
+	private boolean enabled;
+	
+	/** When the job runs; partitions are kept up to date on every run, archiving or not. */
+	private String cron = "0 30 3 * * *";
+	
+	/** Age past which a like is archived. */
+	private Period horizon = Period.ofYears(2);
+	
+	/** Likes moved per transaction. */
+	private int batchSize = 1000;
+	
+	/** Months past the current one that always have their own partition. */
+	private int partitionsAhead = 3;
+	
+	/** How long changes stay in the log behind listing versions; the latest one always stays. */
+	private Duration changeRetention = Duration.ofDays(1);
+	
+}
@@ -1,24 +1,106 @@
 package com.selimhorri.app.config.client;
 
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import com.selimhorri.app.client.CoalescingLookupClient;
+import com.selimhorri.app.client.NearCache;
+import com.selimhorri.app.client.PooledClientHttpRequestFactory;
+import com.selimhorri.app.config.enrichment.EnrichmentConfig;
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.UserDto;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class ClientConfig {
 
+	/** Name of the resilience4j circuit breaker, bulkhead and time limiter guarding USER-SERVICE. */
+	public static final String USER_SERVICE = "userService";
+
+	/** Name of the resilience4j circuit breaker, bulkhead and time limiter guarding PRODUCT-SERVICE. */
+	public static final String PRODUCT_SERVICE = "productService";
+
+	@Bean
+	public PooledClientHttpRequestFactory pooledClientHttpRequestFactoryBean(
+			final HttpClientProperties httpClientProperties,
+			final ObjectProvider<DiscoveryClient> discoveryClient,
+			final MeterRegistry meterRegistry) {
+		return new PooledClientHttpRequestFactory(httpClientProperties, discoveryClient.getIfAvailable(), meterRegistry);
+	}
+
 	@LoadBalanced
 	@Bean
-	public RestTemplate restTemplateBean() {
-		SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-		// Timeout de conexión: 5 segundos
-		factory.setConnectTimeout(5000);
-		// Timeout de lectura: 10 segundos
-		factory.setReadTimeout(10000);
-
-		return new RestTemplate(factory);
+	public RestTemplate restTemplateBean(final PooledClientHttpRequestFactory pooledClientHttpRequestFactory) {
+		return new RestTemplate(pooledClientHttpRequestFactory);
+	}
+
+	@Bean
+	public CoalescingLookupClient<UserDto> userLookupClientBean(
+			final RestTemplate restTemplate,
+			@Qualifier(EnrichmentConfig.ENRICHMENT_EXECUTOR) final Executor enrichmentExecutor,
+			final EnrichmentProperties enrichmentProperties,
+			final CircuitBreakerRegistry circuitBreakerRegistry,
+			final BulkheadRegistry bulkheadRegistry,
+			final TimeLimiterRegistry timeLimiterRegistry,
+			final MeterRegistry meterRegistry) {
+		return new CoalescingLookupClient<>("user", AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL,
+				UserDto.class, UserDto::getUserId, enrichmentProperties.getUser(),
+				circuitBreakerRegistry.circuitBreaker(USER_SERVICE),
+				bulkheadRegistry.bulkhead(USER_SERVICE),
+				timeLimiterRegistry.timeLimiter(USER_SERVICE),
+				restTemplate, enrichmentExecutor, meterRegistry);
+	}
+
+	@Bean
+	public CoalescingLookupClient<ProductDto> productLookupClientBean(
+			final RestTemplate restTemplate,
+			@Qualifier(EnrichmentConfig.ENRICHMENT_EXECUTOR) final Executor enrichmentExecutor,
+			final EnrichmentProperties enrichmentProperties,
+			final CircuitBreakerRegistry circuitBreakerRegistry,
+			final BulkheadRegistry bulkheadRegistry,
+			final TimeLimiterRegistry timeLimiterRegistry,
+			final MeterRegistry meterRegistry) {
+		return new CoalescingLookupClient<>("product", AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL,
+				ProductDto.class, ProductDto::getProductId, enrichmentProperties.getProduct(),
+				circuitBreakerRegistry.circuitBreaker(PRODUCT_SERVICE),
+				bulkheadRegistry.bulkhead(PRODUCT_SERVICE),
+				timeLimiterRegistry.timeLimiter(PRODUCT_SERVICE),
+				restTemplate, enrichmentExecutor, meterRegistry);
+	}
+
+	@Bean
+	public NearCache<UserDto> userNearCacheBean(
+			final CoalescingLookupClient<UserDto> userLookupClient,
+			final EnrichmentProperties enrichmentProperties,
+			final MeterRegistry meterRegistry) {
+		return new NearCache<>("user", userLookupClient::fetch,
+				u -> NearCache.estimateWeight(u.getFirstName(), u.getLastName(), u.getImageUrl(), u.getEmail(), u.getPhone()),
+				enrichmentProperties.getUser().getCache(), meterRegistry);
+	}
+
+	@Bean
+	public NearCache<ProductDto> productNearCacheBean(
+			final CoalescingLookupClient<ProductDto> productLookupClient,
+			final EnrichmentProperties enrichmentProperties,
+			final MeterRegistry meterRegistry) {
+		return new NearCache<>("product", productLookupClient::fetch,
+				p -> NearCache.estimateWeight(p.getProductTitle(), p.getImageUrl(), p.getSku()),
+				enrichmentProperties.getProduct().getCache(), meterRegistry);
 	}
 
 }
@@ -0,0 +1,60 @@
+package com.selimhorri.app.config.client;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Connection pool and timeouts of the HTTP client used for downstream calls,
+ * bound from {@code app.http-client.*}.
+ */
+@ConfigurationProperties(prefix = "app.http-client")
+@Data
+public class HttpClientProperties {
+	
+	/** Connections held open across all downstream services. */
+	private int maxTotal = 100;
+	
+	/** Connections held open to a single instance of a service without route settings. */
+	private int defaultMaxPerRoute = 20;
+	
+	private Duration connectTimeout = Duration.ofSeconds(5);
+	
+	private Duration readTimeout = Duration.ofSeconds(10);
+	
+	/** Time a call waits for a pooled connection before failing. */
+	private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+	
+	/** How long an idle connection is kept for reuse when the server does not say. */
+	private Duration keepAlive = Duration.ofSeconds(30);
+	
+	/** Idle time after which the background evictor closes a pooled connection. */
+	private Duration idleTimeout = Duration.ofSeconds(30);
+	
+	/** Idle time after which a pooled connection is checked for staleness before reuse. */
+	private Duration validateAfterInactivity = Duration.ofSeconds(2);
+	
+	/** Settings of each downstream service, keyed by its discovery service id. */
+	private Map<String, Route> routes = new LinkedHashMap<>();
+	
+	/**
+	 * Settings applied to every instance of one downstream service;
+	 * unset values fall back to the client-wide ones.
+	 */
+	@Data
+	public static class Route {
+		
+		/** Connections held open to a single instance of the service. */
+		private Integer maxPerRoute;
+		
+		private Duration connectTimeout;
+		
+		private Duration readTimeout;
+		
+	}
+	
+}
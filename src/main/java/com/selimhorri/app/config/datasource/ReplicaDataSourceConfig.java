@@ -0,0 +1,63 @@
+package com.selimhorri.app.config.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replaces the auto-configured data source with one that sends read-only transactions
+ * to {@code app.datasource.replica.url} and the rest to {@code spring.datasource.url}.
+ * Left out when no replica is configured.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfig {
+	
+	public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+	public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+	
+	@Bean(name = PRIMARY_DATA_SOURCE)
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource primaryDataSourceBean(final DataSourceProperties dataSourceProperties) {
+		final HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+	
+	@Bean(name = REPLICA_DATA_SOURCE)
+	@ConfigurationProperties(prefix = "app.datasource.replica.hikari")
+	public HikariDataSource replicaDataSourceBean(final ReplicaDataSourceProperties replicaDataSourceProperties) {
+		final HikariDataSource dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(replicaDataSourceProperties.getUrl())
+				.username(replicaDataSourceProperties.getUsername())
+				.password(replicaDataSourceProperties.getPassword())
+				.build();
+		dataSource.setPoolName("replica");
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+	
+	@Bean
+	@Primary
+	public DataSource routingDataSourceBean(
+			@Qualifier(PRIMARY_DATA_SOURCE) final DataSource primary,
+			@Qualifier(REPLICA_DATA_SOURCE) final DataSource replica) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+	}
+	
+}
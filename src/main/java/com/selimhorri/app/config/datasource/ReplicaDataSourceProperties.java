@@ -0,0 +1,22 @@
+package com.selimhorri.app.config.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Read replica behind read-only transactions, bound from {@code app.datasource.replica.*}.
+ * Pool settings go under {@code app.datasource.replica.hikari.*}, as for the primary.
+ */
+@ConfigurationProperties(prefix = "app.datasource.replica")
+@Data
+public class ReplicaDataSourceProperties {
+	
+	/** JDBC URL of the replica; without it every transaction uses the primary. */
+	private String url;
+	
+	private String username;
+	
+	private String password;
+	
+}
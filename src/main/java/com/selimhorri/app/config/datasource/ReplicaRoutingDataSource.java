@@ -0,0 +1,56 @@
+package com.selimhorri.app.config.datasource;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary connections
+ * everywhere else. It must sit behind a {@link LazyConnectionDataSourceProxy}: the
+ * transaction manager asks for a connection before the transaction is marked read-only,
+ * and the proxy defers the lookup until the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+	
+	public enum Route {
+		PRIMARY,
+		REPLICA
+	}
+	
+	private static final ThreadLocal<Boolean> PRIMARY_PINNED = ThreadLocal.withInitial(() -> false);
+	
+	public ReplicaRoutingDataSource(final DataSource primary, final DataSource replica) {
+		this.setTargetDataSources(Map.<Object, Object>of(Route.PRIMARY, primary, Route.REPLICA, replica));
+		this.setDefaultTargetDataSource(primary);
+		this.afterPropertiesSet();
+	}
+	
+	/**
+	 * Runs {@code reads} on the primary, read-only transactions included, for callers that
+	 * must see writes the replica may not have applied yet. Transactions started inside
+	 * {@code reads} are affected; one already holding a connection is not.
+	 */
+	public static <T> T onPrimary(final Supplier<T> reads) {
+		final boolean pinned = PRIMARY_PINNED.get();
+		PRIMARY_PINNED.set(true);
+		try {
+			return reads.get();
+		}
+		finally {
+			PRIMARY_PINNED.set(pinned);
+		}
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PRIMARY_PINNED.get()
+				? Route.REPLICA
+				: Route.PRIMARY;
+	}
+	
+}
@@ -0,0 +1,29 @@
+package com.selimhorri.app.config.enrichment;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(EnrichmentProperties.class)
+public class EnrichmentConfig {
+	
+	public static final String ENRICHMENT_EXECUTOR = "enrichmentExecutor";
+	
+	@Bean(name = ENRICHMENT_EXECUTOR)
+	public ThreadPoolTaskExecutor enrichmentExecutorBean(final EnrichmentProperties enrichmentProperties) {
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("enrichment-");
+		executor.setCorePoolSize(enrichmentProperties.getCorePoolSize());
+		executor.setMaxPoolSize(enrichmentProperties.getMaxPoolSize());
+		executor.setQueueCapacity(enrichmentProperties.getQueueCapacity());
+		// Rejected lookups degrade to the fallback DTO instead of running on the request thread
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(false);
+		return executor;
+	}
+	
+}
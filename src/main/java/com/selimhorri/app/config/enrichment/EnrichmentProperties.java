@@ -0,0 +1,103 @@
+package com.selimhorri.app.config.enrichment;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Tuning knobs for the user/product enrichment of favourites,
+ * bound from {@code app.enrichment.*}.
+ */
+@ConfigurationProperties(prefix = "app.enrichment")
+@Data
+public class EnrichmentProperties {
+	
+	/** Threads kept alive in the dedicated enrichment executor. */
+	private int corePoolSize = 16;
+	
+	/** Upper bound of threads in the dedicated enrichment executor. */
+	private int maxPoolSize = 64;
+	
+	/** Lookups queued before the executor starts rejecting work. */
+	private int queueCapacity = 1000;
+	
+	/** Time budget for enriching a whole request, after which rows keep their fallback DTOs. */
+	private Duration deadline = Duration.ofSeconds(3);
+	
+	/** Lookup settings for USER-SERVICE. */
+	private Downstream user = new Downstream();
+	
+	/** Lookup settings for PRODUCT-SERVICE. */
+	private Downstream product = new Downstream();
+	
+	@Data
+	public static class Downstream {
+		
+		/**
+		 * Batch endpoint answering {@code GET <batchUrl>?ids=1,2,3} with a {@code DtoCollectionResponse};
+		 * keys are looked up one by one while unset.
+		 */
+		private String batchUrl;
+		
+		/** How long keys are collected before a batch is sent. */
+		private Duration batchWindow = Duration.ofMillis(2);
+		
+		/** Keys per batch request; a full batch is sent without waiting for the window. */
+		private int maxBatchSize = 100;
+		
+		/** Near-cache kept in front of the lookups. */
+		private CacheSettings cache = new CacheSettings();
+		
+		/** Racing of slow single-key lookups against another instance. */
+		private Hedging hedging = new Hedging();
+		
+	}
+	
+	@Data
+	public static class Hedging {
+		
+		/**
+		 * Whether a single-key lookup still pending after the hedging delay is sent again;
+		 * the load balancer hands the second call to the next instance in turn.
+		 */
+		private boolean enabled = false;
+		
+		/** Latency percentile of recent calls used as the hedging delay. */
+		private double percentile = 0.95;
+		
+		/** Delay used while fewer than {@code minSamples} calls were timed within the last minute. */
+		private Duration initialDelay = Duration.ofMillis(100);
+		
+		/** Lower bound of the delay, so a fast service is not hedged on noise. */
+		private Duration minDelay = Duration.ofMillis(5);
+		
+		private int minSamples = 100;
+		
+		/** Hedges allowed per primary call; 0.05 adds at most 5% to the downstream load. */
+		private double budget = 0.05;
+		
+		/** Hedges that may be sent back to back once enough budget has been saved up. */
+		private int maxBurst = 10;
+		
+	}
+	
+	@Data
+	public static class CacheSettings {
+		
+		/** Age after which an entry is refreshed in the background while still being served. */
+		private Duration ttl = Duration.ofMinutes(1);
+		
+		/** Age after which an entry is dropped, even when the downstream service is failing. */
+		private Duration maxStale = Duration.ofMinutes(30);
+		
+		private int maxEntries = 10_000;
+		
+		/** Bound on the estimated memory held by cached values. */
+		private DataSize maxWeight = DataSize.ofMegabytes(16);
+		
+	}
+	
+}
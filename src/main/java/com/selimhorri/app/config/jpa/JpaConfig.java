@@ -0,0 +1,14 @@
+package com.selimhorri.app.config.jpa;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * Fills the {@code created_at}/{@code updated_at} audit columns from the application,
+ * so they are set on every write path and database alike.
+ */
+@Configuration
+@EnableJpaAuditing
+public class JpaConfig {
+	
+}
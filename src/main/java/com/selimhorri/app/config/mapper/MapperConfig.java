@@ -1,31 +1,51 @@
 package com.selimhorri.app.config.mapper;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 
 @Configuration
 public class MapperConfig {
 	
+	/**
+	 * JSON mapper behind every response. Output is compact unless
+	 * {@code app.json.indent-output} is set, as the dev profile does.
+	 */
 	@Bean
-	public ObjectMapper objectMapperBean() {
-		return new JsonMapper()
-				.enable(SerializationFeature.INDENT_OUTPUT);
+	public ObjectMapper objectMapperBean(@Value("${app.json.indent-output:false}") final boolean indentOutput) {
+		return configure(new JsonMapper())
+				.configure(SerializationFeature.INDENT_OUTPUT, indentOutput);
 	}
 	
+	/**
+	 * Smile ({@code application/x-jackson-smile}) for service-to-service consumers asking
+	 * for it; registered after the JSON converter, so JSON stays the default.
+	 */
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverterBean() {
+		return new MappingJackson2SmileHttpMessageConverter(configure(new SmileMapper()));
+	}
+	
+	/**
+	 * CBOR ({@code application/cbor}), negotiated the same way as Smile.
+	 */
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverterBean() {
+		return new MappingJackson2CborHttpMessageConverter(configure(new CBORMapper()));
+	}
 	
+	private static <M extends ObjectMapper> M configure(final M mapper) {
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		return mapper;
+	}
 	
 }
-
-
-
-
-
-
-
-
-
-
@@ -0,0 +1,27 @@
+package com.selimhorri.app.config.web;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.springframework.core.convert.converter.Converter;
+
+import com.selimhorri.app.dto.FavouriteExpansion;
+
+/**
+ * Binds the items of the {@code expand} request parameter, written in lower case
+ * ({@code expand=user,product}); the list itself is split by Spring.
+ */
+public class FavouriteExpansionConverter implements Converter<String, FavouriteExpansion> {
+	
+	@Override
+	public FavouriteExpansion convert(final String source) {
+		try {
+			return FavouriteExpansion.valueOf(source.trim().toUpperCase(Locale.ROOT));
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(String.format("Expansion: [%s] is not one of %s",
+					source, Arrays.toString(FavouriteExpansion.values()).toLowerCase(Locale.ROOT)), e);
+		}
+	}
+	
+}
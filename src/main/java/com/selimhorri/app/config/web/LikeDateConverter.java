@@ -0,0 +1,25 @@
+package com.selimhorri.app.config.web;
+
+import java.time.LocalDateTime;
+
+import org.springframework.core.convert.converter.Converter;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.helper.FavouriteIdCodec;
+
+/**
+ * Binds {@link LocalDateTime} path variables and request parameters written in
+ * {@link AppConstant#LOCAL_DATE_TIME_FORMAT}, the only date format this service speaks.
+ */
+public class LikeDateConverter implements Converter<String, LocalDateTime> {
+	
+	@Override
+	public LocalDateTime convert(final String source) {
+		final LocalDateTime likeDate = FavouriteIdCodec.parseLikeDate(source);
+		if (likeDate == null)
+			throw new IllegalArgumentException(String.format(
+					"Date: [%s] does not match format: [%s]", source, AppConstant.LOCAL_DATE_TIME_FORMAT));
+		return likeDate;
+	}
+	
+}
@@ -0,0 +1,44 @@
+package com.selimhorri.app.config.web;
+
+import java.time.Duration;
+
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.FavouriteStateDto;
+import com.selimhorri.app.util.IdempotencyCache;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+	
+	@Override
+	public void addFormatters(final FormatterRegistry registry) {
+		registry.addConverter(new LikeDateConverter());
+		registry.addConverter(new FavouriteExpansionConverter());
+	}
+	
+	@Bean
+	public IdempotencyCache<FavouriteStateDto> favouriteStateIdempotencyCacheBean() {
+		return new IdempotencyCache<>(Duration.ofMinutes(AppConstant.IDEMPOTENCY_KEY_TTL_MINUTES),
+				AppConstant.MAX_IDEMPOTENCY_KEYS);
+	}
+	
+	/**
+	 * Tomcat leaves responses carrying a strong ETag uncompressed unless told otherwise.
+	 * Listing tags already vary with Accept-Encoding, so the gzip and identity bodies
+	 * never share one.
+	 */
+	@Bean
+	public TomcatConnectorCustomizer compressionConnectorCustomizerBean() {
+		return connector -> {
+			if (connector.getProtocolHandler() instanceof AbstractHttp11Protocol)
+				((AbstractHttp11Protocol<?>) connector.getProtocolHandler()).setNoCompressionStrongETag(false);
+		};
+	}
+	
+}
@@ -0,0 +1,12 @@
+package com.selimhorri.app.config.writebehind;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfig {
+	
+	
+	
+}
@@ -0,0 +1,40 @@
+package com.selimhorri.app.config.writebehind;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Write-behind mode of single favourite writes, bound from {@code app.write-behind.*}.
+ */
+@ConfigurationProperties(prefix = "app.write-behind")
+@Data
+public class WriteBehindProperties {
+	
+	/** Acknowledges single writes once journaled and applies them to the database in the background. */
+	private boolean enabled;
+	
+	/** Directory of the journal segments; it must outlive the process for replay to work. */
+	private Path journalDir = Paths.get("journal");
+	
+	/** Forces each journaled write to disk before it is acknowledged. */
+	private boolean sync = true;
+	
+	/** Writes applied per database transaction; reaching it also starts a flush early. */
+	private int flushSize = 500;
+	
+	/** Time between background flushes. */
+	private Duration flushInterval = Duration.ofMillis(200);
+	
+	/** Journal size at which writers wait for the flusher to catch up. */
+	private DataSize maxJournalSize = DataSize.ofMegabytes(64);
+	
+	/** How long a writer waits for room in the journal before it is turned away. */
+	private Duration backpressureTimeout = Duration.ofSeconds(1);
+	
+}
@@ -11,6 +11,20 @@ public abstract class AppConstant {
 	public static final String ZONED_DATE_TIME_FORMAT = "dd-MM-yyyy__HH:mm:ss:SSSSSS";
 	public static final String INSTANT_FORMAT = "dd-MM-yyyy__HH:mm:ss:SSSSSS";
 	
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+	
+	public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+	public static final int EXPORT_FETCH_SIZE = 500;
+	public static final int EXPORT_BATCH_SIZE = 500;
+	
+	public static final int MAX_BULK_SIZE = 10_000;
+	public static final int JDBC_BATCH_SIZE = 500;
+	
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final int MAX_IDEMPOTENCY_KEYS = 10_000;
+	public static final int IDEMPOTENCY_KEY_TTL_MINUTES = 10;
+	
 	@NoArgsConstructor(access = AccessLevel.PRIVATE)
 	public abstract class DiscoveredDomainsApi {
 		
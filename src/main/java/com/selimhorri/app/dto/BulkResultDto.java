@@ -0,0 +1,48 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import com.selimhorri.app.constant.AppConstant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class BulkResultDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private int index;
+	private Integer userId;
+	private Integer productId;
+	
+	@JsonSerialize(using = LocalDateTimeSerializer.class)
+	@JsonDeserialize(using = LocalDateTimeDeserializer.class)
+	@JsonFormat(pattern = AppConstant.LOCAL_DATE_TIME_FORMAT, shape = Shape.STRING)
+	private LocalDateTime likeDate;
+	
+	private Status status;
+	
+	public enum Status {
+		CREATED,
+		DUPLICATE,
+		DELETED,
+		NOT_FOUND,
+		INVALID,
+		/** The driver applied the statement without reporting its row count. */
+		ACCEPTED
+	}
+	
+}
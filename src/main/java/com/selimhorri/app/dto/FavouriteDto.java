@@ -45,11 +45,11 @@ public class FavouriteDto implements Serializable {
 	private LocalDateTime likeDate;
 	
 	@JsonProperty("user")
-	@JsonInclude(Include.NON_NULL)
+	@JsonInclude(value = Include.CUSTOM, valueFilter = StubDtoFilter.class)
 	private UserDto userDto;
 	
 	@JsonProperty("product")
-	@JsonInclude(Include.NON_NULL)
+	@JsonInclude(value = Include.CUSTOM, valueFilter = StubDtoFilter.class)
 	private ProductDto productDto;
 	
 }
@@ -0,0 +1,29 @@
+package com.selimhorri.app.dto;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Related resources a caller may ask to have embedded in favourites, through
+ * {@code ?expand=user,product}. Favourites carry only their key by default;
+ * each expansion costs a lookup against the owning service.
+ */
+public enum FavouriteExpansion {
+	
+	USER,
+	PRODUCT;
+	
+	public static final Set<FavouriteExpansion> NONE = Collections.unmodifiableSet(EnumSet.noneOf(FavouriteExpansion.class));
+	public static final Set<FavouriteExpansion> ALL = Collections.unmodifiableSet(EnumSet.allOf(FavouriteExpansion.class));
+	
+	/**
+	 * The requested expansions in declaration order, so equal requests render alike.
+	 */
+	public static Set<FavouriteExpansion> of(final Set<FavouriteExpansion> expansions) {
+		return expansions == null || expansions.isEmpty()
+				? NONE
+				: Collections.unmodifiableSet(EnumSet.copyOf(expansions));
+	}
+	
+}
@@ -0,0 +1,26 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Whether a user likes a product after a like or unlike, and whether the call changed it.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class FavouriteStateDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Integer userId;
+	private Integer productId;
+	private boolean liked;
+	private boolean changed;
+	
+}
@@ -15,6 +15,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Data
 @Builder
+@JsonInclude(Include.NON_NULL)
 public class ProductDto implements Serializable {
 	
 	private static final long serialVersionUID = 1L;
@@ -0,0 +1,41 @@
+package com.selimhorri.app.dto;
+
+import java.util.Objects;
+
+/**
+ * Jackson value filter leaving out nested user and product DTOs that are null or still
+ * the stub built from the favourite's own key, i.e. carrying nothing but their id.
+ * Jackson excludes a value when {@link #equals(Object)} returns {@code true}.
+ */
+public class StubDtoFilter {
+	
+	@Override
+	public boolean equals(final Object value) {
+		if (value == null)
+			return true;
+		if (value instanceof UserDto) {
+			final UserDto userDto = (UserDto) value;
+			return allNull(userDto.getFirstName(), userDto.getLastName(), userDto.getImageUrl(),
+					userDto.getEmail(), userDto.getPhone(), userDto.getFavouriteDtos());
+		}
+		if (value instanceof ProductDto) {
+			final ProductDto productDto = (ProductDto) value;
+			return allNull(productDto.getProductTitle(), productDto.getImageUrl(), productDto.getSku(),
+					productDto.getPriceUnit(), productDto.getQuantity(), productDto.getFavouriteDtos());
+		}
+		return false;
+	}
+	
+	@Override
+	public int hashCode() {
+		return StubDtoFilter.class.hashCode();
+	}
+	
+	private static boolean allNull(final Object... values) {
+		for (final Object value : values)
+			if (Objects.nonNull(value))
+				return false;
+		return true;
+	}
+	
+}
@@ -4,6 +4,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -11,12 +12,17 @@ import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 
 import com.selimhorri.app.exception.payload.ExceptionMsg;
+import com.selimhorri.app.exception.wrapper.BulkLimitExceededException;
 import com.selimhorri.app.exception.wrapper.FavouriteNotFoundException;
+import com.selimhorri.app.exception.wrapper.IdempotencyKeyReusedException;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+import com.selimhorri.app.exception.wrapper.WriteBacklogFullException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -47,6 +53,8 @@ public class ApiExceptionHandler {
 
 	@ExceptionHandler(value = {
 			FavouriteNotFoundException.class,
+			InvalidCursorException.class,
+			BulkLimitExceededException.class,
 	})
 	public <T extends RuntimeException> ResponseEntity<ExceptionMsg> handleApiRequestException(final T e) {
 
@@ -63,6 +71,24 @@ public class ApiExceptionHandler {
 				badRequest);
 	}
 
+	@ExceptionHandler(value = {
+			MethodArgumentTypeMismatchException.class,
+	})
+	public ResponseEntity<ExceptionMsg> handleTypeMismatchException(final MethodArgumentTypeMismatchException e) {
+
+		log.info("**ApiExceptionHandler controller, handle type mismatch*\n");
+		final var badRequest = HttpStatus.BAD_REQUEST;
+
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+						.msg("#### Invalid value for " + e.getName() + ": [" + e.getValue() + "]! ####")
+						.httpStatus(badRequest)
+						.timestamp(ZonedDateTime
+								.now(ZoneId.systemDefault()))
+						.build(),
+				badRequest);
+	}
+
 	@ExceptionHandler(value = {
 			DataIntegrityViolationException.class,
 	})
@@ -91,6 +117,42 @@ public class ApiExceptionHandler {
 				conflict);
 	}
 
+	@ExceptionHandler(value = {
+			IdempotencyKeyReusedException.class,
+	})
+	public ResponseEntity<ExceptionMsg> handleIdempotencyKeyReusedException(final IdempotencyKeyReusedException e) {
+
+		log.info("**ApiExceptionHandler controller, handle reused idempotency key*\n");
+		final var unprocessableEntity = HttpStatus.UNPROCESSABLE_ENTITY;
+
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+						.msg("#### " + e.getMessage() + "! ####")
+						.httpStatus(unprocessableEntity)
+						.timestamp(ZonedDateTime
+								.now(ZoneId.systemDefault()))
+						.build(),
+				unprocessableEntity);
+	}
+
+	@ExceptionHandler(value = {
+			WriteBacklogFullException.class,
+	})
+	public ResponseEntity<ExceptionMsg> handleWriteBacklogFullException(final WriteBacklogFullException e) {
+
+		log.warn("**ApiExceptionHandler controller, handle write backlog full*\n");
+		final var serviceUnavailable = HttpStatus.SERVICE_UNAVAILABLE;
+
+		return ResponseEntity.status(serviceUnavailable)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(ExceptionMsg.builder()
+						.msg("#### " + e.getMessage() + "! ####")
+						.httpStatus(serviceUnavailable)
+						.timestamp(ZonedDateTime
+								.now(ZoneId.systemDefault()))
+						.build());
+	}
+
 	@ExceptionHandler(value = {
 			ResourceAccessException.class,
 	})
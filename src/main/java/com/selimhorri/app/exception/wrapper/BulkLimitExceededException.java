@@ -0,0 +1,25 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class BulkLimitExceededException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public BulkLimitExceededException() {
+		super();
+	}
+	
+	public BulkLimitExceededException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public BulkLimitExceededException(String message) {
+		super(message);
+	}
+	
+	public BulkLimitExceededException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
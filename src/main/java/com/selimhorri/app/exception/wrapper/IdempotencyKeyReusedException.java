@@ -0,0 +1,25 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public IdempotencyKeyReusedException() {
+		super();
+	}
+	
+	public IdempotencyKeyReusedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public IdempotencyKeyReusedException(String message) {
+		super(message);
+	}
+	
+	public IdempotencyKeyReusedException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
@@ -0,0 +1,25 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class WriteBacklogFullException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public WriteBacklogFullException() {
+		super();
+	}
+	
+	public WriteBacklogFullException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public WriteBacklogFullException(String message) {
+		super(message);
+	}
+	
+	public WriteBacklogFullException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
@@ -0,0 +1,35 @@
+package com.selimhorri.app.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+
+/**
+ * Opaque keyset cursors over the (user_id, product_id, like_date) primary key.
+ */
+public interface FavouriteCursorHelper {
+	
+	public static String encode(final FavouriteId favouriteId) {
+		final String key = favouriteId.getUserId() + ":" + favouriteId.getProductId() + ":" + favouriteId.getLikeDate();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static FavouriteId decode(final String cursor) {
+		try {
+			final String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+			if (parts.length != 3)
+				throw new InvalidCursorException(String.format("Cursor: [%s] is not valid", cursor));
+			return new FavouriteId(Integer.valueOf(parts[0]), Integer.valueOf(parts[1]), LocalDateTime.parse(parts[2]));
+		}
+		catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new InvalidCursorException(String.format("Cursor: [%s] is not valid", cursor), e);
+		}
+	}
+	
+	
+	
+}
@@ -0,0 +1,26 @@
+package com.selimhorri.app.helper;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+public interface FavouriteETagHelper {
+	
+	/**
+	 * Strong entity tag of one representation of a scope of favourites: the scope's
+	 * version, plus whatever else selects the bytes sent back, namely the query parameters
+	 * and the negotiated media type and content coding. Enriched user and product data
+	 * are not covered; they change on the downstream services' own schedule.
+	 */
+	public static String eTag(final String scope, final long version, final WebRequest webRequest,
+			final Object... parameters) {
+		final int variant = Objects.hash(
+				webRequest.getHeader(HttpHeaders.ACCEPT),
+				webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING),
+				Arrays.hashCode(parameters));
+		return "\"" + scope + "-" + Long.toString(version, 36) + "-" + Integer.toHexString(variant) + "\"";
+	}
+	
+}
@@ -0,0 +1,84 @@
+package com.selimhorri.app.helper;
+
+import java.time.LocalDateTime;
+
+import com.selimhorri.app.constant.AppConstant;
+
+/**
+ * Hand-written parser for the like date of favourite keys in URLs, written in
+ * {@link AppConstant#LOCAL_DATE_TIME_FORMAT} ({@code dd-MM-yyyy__HH:mm:ss:SSSSSS}). Parsing
+ * allocates nothing but the result and reports bad input by returning {@code null} rather
+ * than throwing. A {@code :} may also arrive still percent-encoded as {@code %3A}, as sent
+ * by clients that encode twice.
+ */
+public interface FavouriteIdCodec {
+	
+	public static LocalDateTime parseLikeDate(final CharSequence text) {
+		if (text == null || text.length() < 27)
+			return null;
+		final int day = digits(text, 0, 2);
+		final int month = digits(text, 3, 2);
+		final int year = digits(text, 6, 4);
+		if (day < 0 || month < 0 || year < 0 || text.charAt(2) != '-' || text.charAt(5) != '-'
+				|| text.charAt(10) != '_' || text.charAt(11) != '_')
+			return null;
+		// Each colon is one or three characters long, so the time fields have no fixed offsets
+		final int hour = digits(text, 12, 2);
+		int pos = colon(text, 14);
+		final int minute = digits(text, pos, 2);
+		pos = pos < 0 ? -1 : colon(text, pos + 2);
+		final int second = digits(text, pos, 2);
+		pos = pos < 0 ? -1 : colon(text, pos + 2);
+		final int micros = digits(text, pos, 6);
+		if (hour < 0 || minute < 0 || second < 0 || micros < 0 || pos + 6 != text.length())
+			return null;
+		
+		if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+				|| hour > 23 || minute > 59 || second > 59)
+			return null;
+		return LocalDateTime.of(year, month, day, hour, minute, second, micros * 1_000);
+	}
+	
+	/**
+	 * Non-negative number in the {@code count} digits at {@code from}, or -1 when they are not.
+	 */
+	private static int digits(final CharSequence text, final int from, final int count) {
+		if (from < 0 || from + count > text.length())
+			return -1;
+		int value = 0;
+		for (int i = from; i < from + count; i++) {
+			final char c = text.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+	
+	/**
+	 * Position right after the colon at {@code at}, or -1 when there is none.
+	 */
+	private static int colon(final CharSequence text, final int at) {
+		if (at < text.length() && text.charAt(at) == ':')
+			return at + 1;
+		if (at + 3 <= text.length() && text.charAt(at) == '%' && text.charAt(at + 1) == '3'
+				&& (text.charAt(at + 2) == 'A' || text.charAt(at + 2) == 'a'))
+			return at + 3;
+		return -1;
+	}
+	
+	private static int lengthOfMonth(final int year, final int month) {
+		switch (month) {
+			case 2:
+				return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+	
+}
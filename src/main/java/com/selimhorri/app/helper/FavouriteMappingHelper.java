@@ -1,6 +1,7 @@
 package com.selimhorri.app.helper;
 
 import com.selimhorri.app.domain.Favourite;
+import com.selimhorri.app.domain.id.FavouriteId;
 import com.selimhorri.app.dto.FavouriteDto;
 import com.selimhorri.app.dto.ProductDto;
 import com.selimhorri.app.dto.UserDto;
@@ -23,6 +24,41 @@ public interface FavouriteMappingHelper {
 				.build();
 	}
 	
+	public static FavouriteDto map(final FavouriteId favouriteId) {
+		return FavouriteDto.builder()
+				.userId(favouriteId.getUserId())
+				.productId(favouriteId.getProductId())
+				.likeDate(favouriteId.getLikeDate())
+				.userDto(
+						UserDto.builder()
+							.userId(favouriteId.getUserId())
+							.build())
+				.productDto(
+						ProductDto.builder()
+						.productId(favouriteId.getProductId())
+						.build())
+				.build();
+	}
+	
+	/**
+	 * Key-only projection of a favourite, with no user or product DTO to build or serialize.
+	 */
+	public static FavouriteDto project(final Favourite favourite) {
+		return FavouriteDto.builder()
+				.userId(favourite.getUserId())
+				.productId(favourite.getProductId())
+				.likeDate(favourite.getLikeDate())
+				.build();
+	}
+	
+	public static FavouriteDto project(final FavouriteId favouriteId) {
+		return FavouriteDto.builder()
+				.userId(favouriteId.getUserId())
+				.productId(favouriteId.getProductId())
+				.likeDate(favouriteId.getLikeDate())
+				.build();
+	}
+	
 	public static Favourite map(final FavouriteDto favouriteDto) {
 		return Favourite.builder()
 				.userId(favouriteDto.getUserId())
@@ -0,0 +1,226 @@
+package com.selimhorri.app.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of favourite writes, kept as numbered segment files in one directory.
+ * <p>
+ * Each record is a fixed-size, checksummed encoding of one add or remove. Writers call
+ * {@link #write} and then {@link #sync} with the returned position; concurrent syncs share
+ * a single {@code fsync}. {@link #roll} starts a new segment, so everything written before
+ * it can be dropped with {@link #deleteThrough} once applied. Segments left by a previous
+ * run are read back by {@link #replay}, stopping at a torn record at the end of a segment.
+ */
+@Slf4j
+public class FavouriteJournal implements Closeable {
+
+	public enum Operation {
+		ADD,
+		REMOVE,
+		UPDATE
+	}
+
+	/** Operation, user id, product id, like date seconds and nanos, CRC-32 of the rest. */
+	public static final int RECORD_SIZE = 1 + 4 + 4 + 8 + 4 + 4;
+
+	private static final String SEGMENT_PREFIX = "favourites-";
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	private final Path directory;
+	private final boolean sync;
+	private final List<Long> previousSegments;
+	private final AtomicLong size = new AtomicLong();
+
+	private final Object writeLock = new Object();
+	private final Object syncLock = new Object();
+	private FileChannel channel;
+	private long segment;
+	private volatile long written;
+	private long synced;
+
+	/**
+	 * Opens the journal in the given directory, creating it if needed. Writes go to a fresh
+	 * segment; the segments found on disk are left for {@link #replay}.
+	 */
+	public FavouriteJournal(final Path directory, final boolean sync) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.sync = sync;
+		this.previousSegments = this.segments();
+		for (final Long previous : this.previousSegments)
+			this.size.addAndGet(Files.size(this.path(previous)));
+		this.segment = this.previousSegments.isEmpty() ? 1L : this.previousSegments.get(this.previousSegments.size() - 1) + 1L;
+		this.channel = this.open(this.segment);
+	}
+
+	/**
+	 * Appends one record and returns the journal position that {@link #sync} must reach
+	 * for the record to be durable.
+	 */
+	public long write(final Operation operation, final FavouriteId favouriteId) throws IOException {
+		final ByteBuffer record = encode(operation, favouriteId);
+		synchronized (this.writeLock) {
+			while (record.hasRemaining())
+				this.channel.write(record);
+			this.size.addAndGet(RECORD_SIZE);
+			this.written += RECORD_SIZE;
+			return this.written;
+		}
+	}
+
+	/**
+	 * Forces the journal to disk up to at least the given position. A caller finding its
+	 * record already covered by another caller's force returns at once.
+	 */
+	public void sync(final long position) throws IOException {
+		if (!this.sync)
+			return;
+		synchronized (this.syncLock) {
+			if (this.synced >= position)
+				return;
+			final long target = this.written;
+			this.channel.force(false);
+			this.synced = target;
+		}
+	}
+
+	/**
+	 * Closes the current segment and directs later writes to a new one.
+	 * Returns the number of the closed segment.
+	 */
+	public long roll() throws IOException {
+		synchronized (this.syncLock) {
+			synchronized (this.writeLock) {
+				if (this.sync)
+					this.channel.force(false);
+				this.synced = this.written;
+				this.channel.close();
+				final long closed = this.segment;
+				this.segment++;
+				this.channel = this.open(this.segment);
+				return closed;
+			}
+		}
+	}
+
+	/**
+	 * Deletes every segment up to and including the given one.
+	 */
+	public void deleteThrough(final long last) throws IOException {
+		for (final Long number : this.segments()) {
+			if (number > last)
+				break;
+			final Path path = this.path(number);
+			final long bytes = Files.size(path);
+			Files.delete(path);
+			this.size.addAndGet(-bytes);
+		}
+	}
+
+	/**
+	 * Feeds the records of the segments left by a previous run to the consumer, oldest first.
+	 */
+	public int replay(final BiConsumer<Operation, FavouriteId> consumer) throws IOException {
+		int replayed = 0;
+		for (final Long number : this.previousSegments) {
+			final Path path = this.path(number);
+			if (!Files.exists(path))
+				continue;
+			final ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(path));
+			while (records.remaining() >= RECORD_SIZE) {
+				final int start = records.position();
+				final byte operation = records.get();
+				final int userId = records.getInt();
+				final int productId = records.getInt();
+				final long seconds = records.getLong();
+				final int nanos = records.getInt();
+				final int checksum = records.getInt();
+				if (checksum != checksum(records.array(), start) || operation < 0 || operation >= Operation.values().length) {
+					records.position(start);
+					break;
+				}
+				consumer.accept(Operation.values()[operation], new FavouriteId(userId, productId,
+						LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC)));
+				replayed++;
+			}
+			if (records.hasRemaining())
+				log.warn("Ignoring {} bytes of a torn record at the end of journal segment {}", records.remaining(), path);
+		}
+		return replayed;
+	}
+
+	/**
+	 * Bytes held by the journal across all segments not yet deleted.
+	 */
+	public long size() {
+		return this.size.get();
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (this.syncLock) {
+			synchronized (this.writeLock) {
+				if (this.sync && this.channel.isOpen())
+					this.channel.force(false);
+				this.channel.close();
+			}
+		}
+	}
+
+	private FileChannel open(final long number) throws IOException {
+		return FileChannel.open(this.path(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+	}
+
+	private Path path(final long number) {
+		return this.directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+	}
+
+	private List<Long> segments() throws IOException {
+		final List<Long> numbers = new ArrayList<>();
+		try (DirectoryStream<Path> paths = Files.newDirectoryStream(this.directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (final Path path : paths) {
+				final String name = path.getFileName().toString();
+				numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+			}
+		}
+		Collections.sort(numbers);
+		return numbers;
+	}
+
+	private static ByteBuffer encode(final Operation operation, final FavouriteId favouriteId) {
+		final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+		record.put((byte) operation.ordinal())
+				.putInt(favouriteId.getUserId())
+				.putInt(favouriteId.getProductId())
+				.putLong(favouriteId.getLikeDate().toEpochSecond(ZoneOffset.UTC))
+				.putInt(favouriteId.getLikeDate().getNano())
+				.putInt(checksum(record.array(), 0))
+				.flip();
+		return record;
+	}
+
+	private static int checksum(final byte[] bytes, final int offset) {
+		final CRC32 crc = new CRC32();
+		crc.update(bytes, offset, RECORD_SIZE - 4);
+		return (int) crc.getValue();
+	}
+
+}
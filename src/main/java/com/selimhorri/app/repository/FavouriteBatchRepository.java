@@ -0,0 +1,17 @@
+package com.selimhorri.app.repository;
+
+import java.util.List;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+
+/**
+ * Set-oriented writes issued as JDBC batches, bypassing the persistence context.
+ * Each method returns one update count per key, in order.
+ */
+public interface FavouriteBatchRepository {
+	
+	int[] batchInsertIfAbsent(final List<FavouriteId> favouriteIds);
+	int[] batchDelete(final List<FavouriteId> favouriteIds);
+	int[] batchArchive(final List<FavouriteId> favouriteIds);
+	
+}
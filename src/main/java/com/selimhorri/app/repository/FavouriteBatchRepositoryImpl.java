@@ -0,0 +1,78 @@
+package com.selimhorri.app.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.id.FavouriteId;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class FavouriteBatchRepositoryImpl implements FavouriteBatchRepository {
+	
+	private static final String INSERT_IF_ABSENT = "INSERT INTO favourites (user_id, product_id, like_date, created_at) "
+			+ "SELECT ?, ?, ?, ? FROM DUAL "
+			+ "WHERE NOT EXISTS (SELECT 1 FROM favourites WHERE user_id = ? AND product_id = ? AND like_date = ?)";
+	
+	private static final String DELETE_BY_ID = "DELETE FROM favourites WHERE user_id = ? AND product_id = ? AND like_date = ?";
+	
+	private static final String ARCHIVE_IF_ABSENT = "INSERT INTO favourites_archive (user_id, product_id, like_date) "
+			+ "SELECT ?, ?, ? FROM DUAL "
+			+ "WHERE NOT EXISTS (SELECT 1 FROM favourites_archive WHERE user_id = ? AND product_id = ? AND like_date = ?)";
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	@Override
+	public int[] batchInsertIfAbsent(final List<FavouriteId> favouriteIds) {
+		final Timestamp now = Timestamp.from(Instant.now());
+		return flatten(this.jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, favouriteIds, AppConstant.JDBC_BATCH_SIZE,
+				(ps, id) -> {
+					final Timestamp likeDate = Timestamp.valueOf(id.getLikeDate());
+					ps.setInt(1, id.getUserId());
+					ps.setInt(2, id.getProductId());
+					ps.setTimestamp(3, likeDate);
+					ps.setTimestamp(4, now);
+					ps.setInt(5, id.getUserId());
+					ps.setInt(6, id.getProductId());
+					ps.setTimestamp(7, likeDate);
+				}), favouriteIds.size());
+	}
+	
+	@Override
+	public int[] batchDelete(final List<FavouriteId> favouriteIds) {
+		return flatten(this.jdbcTemplate.batchUpdate(DELETE_BY_ID, favouriteIds, AppConstant.JDBC_BATCH_SIZE,
+				(ps, id) -> {
+					ps.setInt(1, id.getUserId());
+					ps.setInt(2, id.getProductId());
+					ps.setTimestamp(3, Timestamp.valueOf(id.getLikeDate()));
+				}), favouriteIds.size());
+	}
+	
+	@Override
+	public int[] batchArchive(final List<FavouriteId> favouriteIds) {
+		return flatten(this.jdbcTemplate.batchUpdate(ARCHIVE_IF_ABSENT, favouriteIds, AppConstant.JDBC_BATCH_SIZE,
+				(ps, id) -> {
+					final Timestamp likeDate = Timestamp.valueOf(id.getLikeDate());
+					ps.setInt(1, id.getUserId());
+					ps.setInt(2, id.getProductId());
+					ps.setTimestamp(3, likeDate);
+					ps.setInt(4, id.getUserId());
+					ps.setInt(5, id.getProductId());
+					ps.setTimestamp(6, likeDate);
+				}), favouriteIds.size());
+	}
+	
+	private static int[] flatten(final int[][] chunks, final int size) {
+		final int[] counts = new int[size];
+		int i = 0;
+		for (final int[] chunk : chunks)
+			for (final int count : chunk)
+				counts[i++] = count;
+		return counts;
+	}
+	
+}
@@ -0,0 +1,36 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+
+/**
+ * Log of the pairs whose favourites were written, behind the versions that tag listings.
+ * A version never goes back: it is the latest change of its scope or, once pruning removed
+ * all of those, the oldest change left, which is newer than any of them.
+ */
+public interface FavouriteChangeRepository {
+	
+	void recordChange(final Integer userId, final Integer productId);
+	
+	/**
+	 * Records one change per key; like dates are not part of a change.
+	 */
+	void recordChanges(final List<FavouriteId> favouriteIds);
+	
+	/**
+	 * Records a change for every product the user currently has favourites of.
+	 */
+	void recordChangesByUserId(final Integer userId);
+	
+	long findVersion();
+	long findVersionByUserId(final Integer userId);
+	long findVersionByProductId(final Integer productId);
+	
+	/**
+	 * Deletes changes older than {@code before}, except the latest one; returns how many went.
+	 */
+	int deleteChangesBefore(final Instant before);
+	
+}
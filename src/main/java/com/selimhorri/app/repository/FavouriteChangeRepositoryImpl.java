@@ -0,0 +1,78 @@
+package com.selimhorri.app.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.id.FavouriteId;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class FavouriteChangeRepositoryImpl implements FavouriteChangeRepository {
+	
+	private static final String INSERT_CHANGE = "INSERT INTO favourite_changes (user_id, product_id, changed_at) VALUES (?, ?, ?)";
+	
+	private static final String INSERT_CHANGES_BY_USER_ID = "INSERT INTO favourite_changes (user_id, product_id, changed_at) "
+			+ "SELECT DISTINCT user_id, product_id, ? FROM favourites WHERE user_id = ?";
+	
+	private static final String SELECT_VERSION = "SELECT COALESCE(MAX(change_id), 0) FROM favourite_changes";
+	
+	private static final String SELECT_VERSION_BY_USER_ID = "SELECT COALESCE("
+			+ "(SELECT MAX(change_id) FROM favourite_changes WHERE user_id = ?), "
+			+ "(SELECT MIN(change_id) FROM favourite_changes), 0)";
+	
+	private static final String SELECT_VERSION_BY_PRODUCT_ID = "SELECT COALESCE("
+			+ "(SELECT MAX(change_id) FROM favourite_changes WHERE product_id = ?), "
+			+ "(SELECT MIN(change_id) FROM favourite_changes), 0)";
+	
+	private static final String DELETE_CHANGES_BEFORE = "DELETE FROM favourite_changes WHERE changed_at < ? AND change_id < ?";
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	@Override
+	public void recordChange(final Integer userId, final Integer productId) {
+		this.jdbcTemplate.update(INSERT_CHANGE, userId, productId, Timestamp.from(Instant.now()));
+	}
+	
+	@Override
+	public void recordChanges(final List<FavouriteId> favouriteIds) {
+		final Timestamp now = Timestamp.from(Instant.now());
+		this.jdbcTemplate.batchUpdate(INSERT_CHANGE, favouriteIds, AppConstant.JDBC_BATCH_SIZE,
+				(ps, id) -> {
+					ps.setInt(1, id.getUserId());
+					ps.setInt(2, id.getProductId());
+					ps.setTimestamp(3, now);
+				});
+	}
+	
+	@Override
+	public void recordChangesByUserId(final Integer userId) {
+		this.jdbcTemplate.update(INSERT_CHANGES_BY_USER_ID, Timestamp.from(Instant.now()), userId);
+	}
+	
+	@Override
+	public long findVersion() {
+		return this.jdbcTemplate.queryForObject(SELECT_VERSION, Long.class);
+	}
+	
+	@Override
+	public long findVersionByUserId(final Integer userId) {
+		return this.jdbcTemplate.queryForObject(SELECT_VERSION_BY_USER_ID, Long.class, userId);
+	}
+	
+	@Override
+	public long findVersionByProductId(final Integer productId) {
+		return this.jdbcTemplate.queryForObject(SELECT_VERSION_BY_PRODUCT_ID, Long.class, productId);
+	}
+	
+	@Override
+	public int deleteChangesBefore(final Instant before) {
+		// Read first: MySQL cannot select from the table a DELETE removes rows from
+		return this.jdbcTemplate.update(DELETE_CHANGES_BEFORE, Timestamp.from(before), this.findVersion());
+	}
+	
+}
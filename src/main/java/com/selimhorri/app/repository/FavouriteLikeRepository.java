@@ -0,0 +1,24 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+
+/**
+ * Liked (user, product) pairs, one row each under a unique key, kept beside favourites so
+ * that likes of one pair are decided by the key rather than by reading favourites first.
+ */
+public interface FavouriteLikeRepository {
+	
+	/**
+	 * Records the pair as liked unless it already is; returns whether this call recorded it.
+	 */
+	boolean insertLikeIfAbsent(final Integer userId, final Integer productId, final Instant createdAt);
+	
+	/**
+	 * Forgets the pair's like if none of its favourites is left, as after they were deleted
+	 * by key or archived; returns the number of likes removed.
+	 */
+	int deleteLikeIfNoFavourite(final Integer userId, final Integer productId);
+	
+	int deleteLike(final Integer userId, final Integer productId);
+	
+}
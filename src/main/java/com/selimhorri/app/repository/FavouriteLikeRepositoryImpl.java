@@ -0,0 +1,45 @@
+package com.selimhorri.app.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class FavouriteLikeRepositoryImpl implements FavouriteLikeRepository {
+	
+	private static final String INSERT_LIKE = "INSERT INTO favourite_likes (user_id, product_id, created_at) VALUES (?, ?, ?)";
+	
+	private static final String DELETE_LIKE_IF_NO_FAVOURITE = "DELETE FROM favourite_likes WHERE user_id = ? AND product_id = ? "
+			+ "AND NOT EXISTS (SELECT 1 FROM favourites WHERE user_id = ? AND product_id = ?)";
+	
+	private static final String DELETE_LIKE = "DELETE FROM favourite_likes WHERE user_id = ? AND product_id = ?";
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	@Override
+	public boolean insertLikeIfAbsent(final Integer userId, final Integer productId, final Instant createdAt) {
+		// A plain insert rather than INSERT ... WHERE NOT EXISTS: the key alone decides, and a
+		// concurrent like of the pair waits on it instead of both passing the check
+		try {
+			return this.jdbcTemplate.update(INSERT_LIKE, userId, productId, Timestamp.from(createdAt)) > 0;
+		}
+		catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+	
+	@Override
+	public int deleteLikeIfNoFavourite(final Integer userId, final Integer productId) {
+		return this.jdbcTemplate.update(DELETE_LIKE_IF_NO_FAVOURITE, userId, productId, userId, productId);
+	}
+	
+	@Override
+	public int deleteLike(final Integer userId, final Integer productId) {
+		return this.jdbcTemplate.update(DELETE_LIKE, userId, productId);
+	}
+	
+}
@@ -0,0 +1,23 @@
+package com.selimhorri.app.repository;
+
+import java.time.YearMonth;
+
+/**
+ * Upkeep of the monthly {@code like_date} partitions of the favourites table. On a
+ * database that does not partition it, every method does nothing.
+ */
+public interface FavouritePartitionRepository {
+	
+	boolean isPartitioned();
+	
+	/**
+	 * Gives each month up to and including {@code last} its own partition; returns how many were added.
+	 */
+	int addPartitionsThrough(final YearMonth last);
+	
+	/**
+	 * Drops the partitions of months before {@code first} that hold no rows; returns how many were dropped.
+	 */
+	int dropEmptyPartitionsBefore(final YearMonth first);
+	
+}
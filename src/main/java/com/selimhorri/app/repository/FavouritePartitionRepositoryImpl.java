@@ -0,0 +1,127 @@
+package com.selimhorri.app.repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the MySQL partitions laid out by the {@code V8} migration of {@code db/vendor/mysql}:
+ * {@code p_past}, one {@code pYYYYMM} partition per month, and the catch-all {@code p_future}.
+ * Months are read from the partition names; only the first month comes from the bound of {@code p_past}.
+ */
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class FavouritePartitionRepositoryImpl implements FavouritePartitionRepository {
+	
+	private static final String PAST = "p_past";
+	private static final String FUTURE = "p_future";
+	private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+	
+	private final JdbcTemplate jdbcTemplate;
+	private volatile Boolean partitioned;
+	
+	@Override
+	public boolean isPartitioned() {
+		if (this.partitioned == null) {
+			final String product = this.jdbcTemplate.execute(
+					(ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			this.partitioned = "MySQL".equalsIgnoreCase(product) && this.partitions().contains(FUTURE);
+		}
+		return this.partitioned;
+	}
+	
+	@Override
+	public int addPartitionsThrough(final YearMonth last) {
+		if (!this.isPartitioned())
+			return 0;
+		
+		// Months missed while the job was not running are split out of p_future as well
+		YearMonth month = null;
+		for (final String name : this.partitions()) {
+			final YearMonth existing = month(name);
+			if (existing != null)
+				month = existing.plusMonths(1);
+		}
+		if (month == null)
+			month = this.pastBound();
+		
+		final List<String> definitions = new ArrayList<>();
+		for (; !month.isAfter(last); month = month.plusMonths(1))
+			definitions.add(String.format("PARTITION %s VALUES LESS THAN ('%s 00:00:00')",
+					month.format(MONTH_NAME), month.plusMonths(1).atDay(1)));
+		if (definitions.isEmpty())
+			return 0;
+		
+		// p_future only holds rows of months without a partition, so splitting it is cheap
+		this.jdbcTemplate.execute(String.format("ALTER TABLE favourites REORGANIZE PARTITION %s INTO (%s, PARTITION %s VALUES LESS THAN (MAXVALUE))",
+				FUTURE, String.join(", ", definitions), FUTURE));
+		log.info("Added {} monthly favourites partitions through {}", definitions.size(), last);
+		return definitions.size();
+	}
+	
+	@Override
+	public int dropEmptyPartitionsBefore(final YearMonth first) {
+		if (!this.isPartitioned())
+			return 0;
+		
+		final List<String> partitions = this.partitions();
+		// The lowest partition takes any row below its bound, so at least one must stay besides p_future
+		int remaining = partitions.size() - 1;
+		final List<String> dropped = new ArrayList<>();
+		for (final String name : partitions) {
+			final YearMonth month = month(name);
+			if (remaining <= 1 || !(PAST.equals(name) || (month != null && month.isBefore(first))))
+				continue;
+			// Checked and dropped one partition at a time, each right after its own check
+			if (this.jdbcTemplate.queryForList(
+					String.format("SELECT 1 FROM favourites PARTITION (%s) LIMIT 1", name), Integer.class).isEmpty()) {
+				this.jdbcTemplate.execute("ALTER TABLE favourites DROP PARTITION " + name);
+				dropped.add(name);
+				remaining--;
+			}
+		}
+		if (!dropped.isEmpty())
+			log.info("Dropped empty favourites partitions {}", dropped);
+		return dropped.size();
+	}
+	
+	private List<String> partitions() {
+		return this.jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+				+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'favourites' AND PARTITION_NAME IS NOT NULL "
+				+ "ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+	}
+	
+	/**
+	 * Month that p_past ends at, the first one to get a partition of its own.
+	 */
+	private YearMonth pastBound() {
+		final List<String> bounds = this.jdbcTemplate.queryForList("SELECT PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+				+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'favourites' AND PARTITION_NAME = ?", String.class, PAST);
+		// RANGE COLUMNS bounds read back quoted, as in '2026-10-01 00:00:00'
+		return bounds.isEmpty()
+				? YearMonth.now()
+				: YearMonth.parse(bounds.get(0).replace("'", "").substring(0, 7));
+	}
+	
+	private static YearMonth month(final String name) {
+		if (PAST.equals(name) || FUTURE.equals(name))
+			return null;
+		try {
+			return YearMonth.parse(name, MONTH_NAME);
+		}
+		catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+	
+}
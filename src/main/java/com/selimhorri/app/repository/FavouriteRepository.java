@@ -1,12 +1,187 @@
 package com.selimhorri.app.repository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
 
-public interface FavouriteRepository extends JpaRepository<Favourite, FavouriteId> {
+public interface FavouriteRepository extends JpaRepository<Favourite, FavouriteId>, FavouriteBatchRepository,
+		FavouriteLikeRepository, FavouriteChangeRepository {
+	
+	@Query("SELECT f FROM Favourite f ORDER BY f.userId, f.productId, f.likeDate")
+	List<Favourite> findFirstPage(final Pageable pageable);
+	
+	/**
+	 * Most recent favourites of one user, answered from the (user_id, like_date, product_id) index alone.
+	 */
+	@Query("SELECT new com.selimhorri.app.domain.id.FavouriteId(f.userId, f.productId, f.likeDate) "
+			+ "FROM Favourite f "
+			+ "WHERE f.userId = :userId "
+			+ "ORDER BY f.likeDate DESC, f.productId DESC")
+	List<FavouriteId> findIdsByUserId(@Param("userId") final Integer userId, final Pageable pageable);
+	
+	@Query("SELECT new com.selimhorri.app.domain.id.FavouriteId(f.userId, f.productId, f.likeDate) "
+			+ "FROM Favourite f "
+			+ "WHERE f.userId = :userId "
+			+ "AND (f.likeDate < :likeDate OR (f.likeDate = :likeDate AND f.productId < :productId)) "
+			+ "ORDER BY f.likeDate DESC, f.productId DESC")
+	List<FavouriteId> findIdsByUserIdBefore(
+			@Param("userId") final Integer userId,
+			@Param("likeDate") final LocalDateTime likeDate,
+			@Param("productId") final Integer productId,
+			final Pageable pageable);
+	
+	/**
+	 * Most recent favourites of one product, answered from the (product_id, like_date, user_id) index alone.
+	 */
+	@Query("SELECT new com.selimhorri.app.domain.id.FavouriteId(f.userId, f.productId, f.likeDate) "
+			+ "FROM Favourite f "
+			+ "WHERE f.productId = :productId "
+			+ "ORDER BY f.likeDate DESC, f.userId DESC")
+	List<FavouriteId> findIdsByProductId(@Param("productId") final Integer productId, final Pageable pageable);
+	
+	@Query("SELECT new com.selimhorri.app.domain.id.FavouriteId(f.userId, f.productId, f.likeDate) "
+			+ "FROM Favourite f "
+			+ "WHERE f.productId = :productId "
+			+ "AND (f.likeDate < :likeDate OR (f.likeDate = :likeDate AND f.userId < :userId)) "
+			+ "ORDER BY f.likeDate DESC, f.userId DESC")
+	List<FavouriteId> findIdsByProductIdBefore(
+			@Param("productId") final Integer productId,
+			@Param("likeDate") final LocalDateTime likeDate,
+			@Param("userId") final Integer userId,
+			final Pageable pageable);
+	
+	long countByProductId(final Integer productId);
+	
+	/**
+	 * Likes of one product since the given date. Bounded on like_date, so it reads only the
+	 * recent partitions, or the recent range of the (product_id, like_date, user_id) index.
+	 */
+	@Query("SELECT COUNT(f) FROM Favourite f WHERE f.productId = :productId AND f.likeDate >= :since")
+	long countByProductIdSince(@Param("productId") final Integer productId, @Param("since") final LocalDateTime since);
+	
+	/**
+	 * Oldest favourites liked before the given date, oldest first.
+	 */
+	@Query("SELECT new com.selimhorri.app.domain.id.FavouriteId(f.userId, f.productId, f.likeDate) "
+			+ "FROM Favourite f "
+			+ "WHERE f.likeDate < :before "
+			+ "ORDER BY f.likeDate, f.userId, f.productId")
+	List<FavouriteId> findIdsLikedBefore(@Param("before") final LocalDateTime before, final Pageable pageable);
+	
+	@Query("SELECT f.productId, COUNT(f) FROM Favourite f GROUP BY f.productId")
+	List<Object[]> countGroupByProductId();
+	
+	@Query("SELECT f.productId, COUNT(f) FROM Favourite f WHERE f.userId = :userId GROUP BY f.productId")
+	List<Object[]> countGroupByProductIdForUserId(@Param("userId") final Integer userId);
+	
+	/**
+	 * Inserts one favourite unless its key is already taken, in a single statement with no
+	 * persistence context involved; returns the number of rows inserted.
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = "INSERT INTO favourites (user_id, product_id, like_date, created_at) "
+			+ "SELECT :userId, :productId, :likeDate, :createdAt FROM DUAL "
+			+ "WHERE NOT EXISTS (SELECT 1 FROM favourites WHERE user_id = :userId AND product_id = :productId AND like_date = :likeDate)")
+	int insertIfAbsent(
+			@Param("userId") final Integer userId,
+			@Param("productId") final Integer productId,
+			@Param("likeDate") final LocalDateTime likeDate,
+			@Param("createdAt") final Instant createdAt);
+	
+	/**
+	 * Marks one favourite as modified; returns the number of rows updated.
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE Favourite f SET f.updatedAt = :updatedAt "
+			+ "WHERE f.userId = :userId AND f.productId = :productId AND f.likeDate = :likeDate")
+	int touch(
+			@Param("userId") final Integer userId,
+			@Param("productId") final Integer productId,
+			@Param("likeDate") final LocalDateTime likeDate,
+			@Param("updatedAt") final Instant updatedAt);
+	
+	/**
+	 * Removes one favourite by key without loading it first; returns the number of rows deleted.
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query("DELETE FROM Favourite f WHERE f.userId = :userId AND f.productId = :productId AND f.likeDate = :likeDate")
+	int deleteByKey(
+			@Param("userId") final Integer userId,
+			@Param("productId") final Integer productId,
+			@Param("likeDate") final LocalDateTime likeDate);
+	
+	boolean existsByUserIdAndProductId(final Integer userId, final Integer productId);
+	
+	/**
+	 * Inserts the favourite of a like unless the pair already has one; returns the number
+	 * of rows inserted. Callers hold the pair's row in favourite_likes, so likes of one pair
+	 * never run it concurrently.
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = "INSERT INTO favourites (user_id, product_id, like_date, created_at) "
+			+ "SELECT :userId, :productId, :likeDate, :createdAt FROM DUAL "
+			+ "WHERE NOT EXISTS (SELECT 1 FROM favourites WHERE user_id = :userId AND product_id = :productId)")
+	int insertIfNotLiked(
+			@Param("userId") final Integer userId,
+			@Param("productId") final Integer productId,
+			@Param("likeDate") final LocalDateTime likeDate,
+			@Param("createdAt") final Instant createdAt);
+	
+	/**
+	 * Unlikes a product for a user in one statement, removing every favourite of the pair.
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query("DELETE FROM Favourite f WHERE f.userId = :userId AND f.productId = :productId")
+	int deleteAllByUserIdAndProductId(@Param("userId") final Integer userId, @Param("productId") final Integer productId);
+	
+	/**
+	 * Removes every favourite of one user with a single set-based DELETE.
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query("DELETE FROM Favourite f WHERE f.userId = :userId")
+	int deleteAllByUserId(@Param("userId") final Integer userId);
 	
+	/**
+	 * Streams every key through a JDBC cursor. Rows are built with a constructor expression,
+	 * so nothing piles up in the persistence context. MySQL only honours the fetch size
+	 * with {@code useCursorFetch=true} on the JDBC URL. Must be consumed inside a transaction.
+	 */
+	@QueryHints({
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + AppConstant.EXPORT_FETCH_SIZE),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+	})
+	@Query("SELECT new com.selimhorri.app.domain.id.FavouriteId(f.userId, f.productId, f.likeDate) "
+			+ "FROM Favourite f ORDER BY f.userId, f.productId, f.likeDate")
+	Stream<FavouriteId> streamAllIds();
 	
+	/**
+	 * Rows strictly after the given primary key, in primary key order. The leading
+	 * {@code userId >=} bound lets the database seek into the primary key index.
+	 */
+	@Query("SELECT f FROM Favourite f "
+			+ "WHERE f.userId >= :userId "
+			+ "AND (f.userId > :userId "
+			+ "OR f.productId > :productId "
+			+ "OR (f.productId = :productId AND f.likeDate > :likeDate)) "
+			+ "ORDER BY f.userId, f.productId, f.likeDate")
+	List<Favourite> findPageAfter(
+			@Param("userId") final Integer userId,
+			@Param("productId") final Integer productId,
+			@Param("likeDate") final LocalDateTime likeDate,
+			final Pageable pageable);
 	
 }
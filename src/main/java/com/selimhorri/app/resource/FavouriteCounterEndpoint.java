@@ -0,0 +1,31 @@
+package com.selimhorri.app.resource;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.service.FavouriteCounterService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@code POST /actuator/favouritecounters} reloads the in-memory favourite counters from the database.
+ */
+@Component
+@Endpoint(id = "favouritecounters")
+@Slf4j
+@RequiredArgsConstructor
+public class FavouriteCounterEndpoint {
+	
+	private final FavouriteCounterService favouriteCounterService;
+	
+	@WriteOperation
+	public Map<String, Integer> rebuild() {
+		log.info("*** Map, endpoint; rebuild favourite counters *");
+		return Map.of("products", this.favouriteCounterService.rebuild());
+	}
+	
+}
@@ -1,16 +1,19 @@
 package com.selimhorri.app.resource;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,14 +21,30 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.config.datasource.ReplicaRoutingDataSource;
 import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.BulkResultDto;
 import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.FavouriteExpansion;
+import com.selimhorri.app.dto.FavouriteStateDto;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
+import com.selimhorri.app.helper.FavouriteETagHelper;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
 import com.selimhorri.app.service.FavouriteService;
+import com.selimhorri.app.service.FavouriteWriteBehindService;
+import com.selimhorri.app.util.IdempotencyCache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,38 +56,171 @@ import lombok.extern.slf4j.Slf4j;
 public class FavouriteResource {
 	
 	private final FavouriteService favouriteService;
+	private final FavouriteWriteBehindService favouriteWriteBehindService;
+	private final IdempotencyCache<FavouriteStateDto> favouriteStateIdempotencyCache;
+	private final ObjectMapper objectMapper;
 	
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<FavouriteDto>> findAll() {
+	public CompletableFuture<ResponseEntity<DtoCollectionResponse<FavouriteDto>>> findAll(
+			@RequestParam(name = "expand", required = false) final Set<FavouriteExpansion> expand, 
+			final WebRequest webRequest) {
 		log.info("*** FavouriteDto List, controller; fetch all favourites *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.favouriteService.findAll()));
+		final Set<FavouriteExpansion> expansions = FavouriteExpansion.of(expand);
+		final long version = this.favouriteService.findVersion();
+		final String eTag = FavouriteETagHelper.eTag("all", version, webRequest, expansions.toString());
+		if (webRequest.checkNotModified(eTag))
+			return null;
+		// The servlet thread is released while enrichment calls are pending
+		return this.readAt(version, () -> this.favouriteService.findAll(expansions))
+				.thenApply(favourites -> ResponseEntity.ok()
+						.eTag(eTag)
+						.varyBy(HttpHeaders.ACCEPT)
+						.body(new DtoCollectionResponse<>(favourites)));
+	}
+	
+	@GetMapping(value = "/export", produces = AppConstant.APPLICATION_NDJSON_VALUE)
+	public void exportAll(
+			@RequestParam(name = "expand", required = false) final Set<FavouriteExpansion> expand, 
+			final HttpServletResponse response) throws IOException {
+		log.info("*** FavouriteDto Stream, controller; export all favourites *");
+		response.setContentType(AppConstant.APPLICATION_NDJSON_VALUE);
+		final ObjectWriter ndjsonWriter = this.objectMapper.writer()
+				.without(SerializationFeature.INDENT_OUTPUT)
+				.withRootValueSeparator("\n");
+		final AtomicBoolean written = new AtomicBoolean();
+		try (SequenceWriter sequenceWriter = ndjsonWriter.writeValues(response.getOutputStream())) {
+			// Each enriched micro-batch is flushed to the client before the next one is read
+			this.favouriteService.streamAll(FavouriteExpansion.of(expand), batch -> {
+				try {
+					if (!batch.isEmpty())
+						written.set(true);
+					sequenceWriter.writeAll(batch);
+					sequenceWriter.flush();
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			sequenceWriter.flush();
+			// An empty export is an empty body, not a blank line
+			if (written.get())
+				response.getOutputStream().write('\n');
+		}
+	}
+	
+	@GetMapping("/page")
+	public ResponseEntity<DtoPageResponse<FavouriteDto>> findPage(
+			@RequestParam(name = "cursor", required = false) final String cursor, 
+			@RequestParam(name = "size", required = false) final Integer size, 
+			@RequestParam(name = "expand", required = false) final Set<FavouriteExpansion> expand, 
+			final WebRequest webRequest) {
+		log.info("*** FavouriteDto Page, controller; fetch page of favourites *");
+		final Set<FavouriteExpansion> expansions = FavouriteExpansion.of(expand);
+		final long version = this.favouriteService.findVersion();
+		final String eTag = FavouriteETagHelper.eTag("all", version, webRequest, cursor, size, expansions.toString());
+		if (webRequest.checkNotModified(eTag))
+			return null;
+		return ResponseEntity.ok()
+				.eTag(eTag)
+				.varyBy(HttpHeaders.ACCEPT)
+				.body(this.readAt(version, () -> this.favouriteService.findPage(cursor, size, expansions)));
+	}
+	
+	@GetMapping("/users/{userId}")
+	public ResponseEntity<DtoPageResponse<FavouriteDto>> findPageByUserId(
+			@PathVariable("userId") final Integer userId, 
+			@RequestParam(name = "cursor", required = false) final String cursor, 
+			@RequestParam(name = "limit", required = false) final Integer limit, 
+			@RequestParam(name = "expand", required = false) final Set<FavouriteExpansion> expand, 
+			final WebRequest webRequest) {
+		log.info("*** FavouriteDto Page, controller; fetch favourites by user id *");
+		final Set<FavouriteExpansion> expansions = FavouriteExpansion.of(expand);
+		final long version = this.favouriteService.findVersionByUserId(userId);
+		final String eTag = FavouriteETagHelper.eTag("u" + userId, version, webRequest, cursor, limit, expansions.toString());
+		if (webRequest.checkNotModified(eTag))
+			return null;
+		return ResponseEntity.ok()
+				.eTag(eTag)
+				.varyBy(HttpHeaders.ACCEPT)
+				.body(this.readAt(version, () -> this.favouriteService.findPageByUserId(userId, cursor, limit, expansions)));
+	}
+	
+	@GetMapping("/products/{productId}/users")
+	public ResponseEntity<DtoPageResponse<FavouriteDto>> findPageByProductId(
+			@PathVariable("productId") final Integer productId, 
+			@RequestParam(name = "cursor", required = false) final String cursor, 
+			@RequestParam(name = "limit", required = false) final Integer limit, 
+			@RequestParam(name = "expand", required = false) final Set<FavouriteExpansion> expand, 
+			final WebRequest webRequest) {
+		log.info("*** FavouriteDto Page, controller; fetch favourites by product id *");
+		final Set<FavouriteExpansion> expansions = FavouriteExpansion.of(expand);
+		final long version = this.favouriteService.findVersionByProductId(productId);
+		final String eTag = FavouriteETagHelper.eTag("p" + productId, version, webRequest, cursor, limit, expansions.toString());
+		if (webRequest.checkNotModified(eTag))
+			return null;
+		return ResponseEntity.ok()
+				.eTag(eTag)
+				.varyBy(HttpHeaders.ACCEPT)
+				.body(this.readAt(version, () -> this.favouriteService.findPageByProductId(productId, cursor, limit, expansions)));
+	}
+	
+	/**
+	 * Likes of a product: all of them from the in-memory counter, or with {@code since}
+	 * only the recent ones, counted from the recent like date partitions.
+	 */
+	@GetMapping("/products/{productId}/count")
+	public ResponseEntity<Long> countByProductId(
+			@PathVariable("productId") final Integer productId,
+			@RequestParam(name = "since", required = false) final LocalDateTime since) {
+		log.info("*** Long, controller; count favourites by product id *");
+		if (since != null)
+			return ResponseEntity.ok(this.favouriteService.countByProductIdSince(productId, since));
+		return ResponseEntity.ok(this.favouriteService.countByProductId(productId));
+	}
+	
+	/**
+	 * Likes a product for a user, whatever the like date; liking it again changes nothing.
+	 */
+	@PutMapping("/users/{userId}/products/{productId}")
+	public ResponseEntity<FavouriteStateDto> like(
+			@PathVariable("userId") final Integer userId, 
+			@PathVariable("productId") final Integer productId, 
+			@RequestHeader(name = AppConstant.IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey) {
+		log.info("*** FavouriteStateDto, resource; like product *");
+		return ResponseEntity.ok(this.favouriteStateIdempotencyCache.execute(idempotencyKey,
+				List.of("like", userId, productId), () -> this.favouriteService.like(userId, productId)));
+	}
+	
+	@DeleteMapping("/users/{userId}/products/{productId}")
+	public ResponseEntity<FavouriteStateDto> unlike(
+			@PathVariable("userId") final Integer userId, 
+			@PathVariable("productId") final Integer productId, 
+			@RequestHeader(name = AppConstant.IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey) {
+		log.info("*** FavouriteStateDto, resource; unlike product *");
+		return ResponseEntity.ok(this.favouriteStateIdempotencyCache.execute(idempotencyKey,
+				List.of("unlike", userId, productId), () -> this.favouriteService.unlike(userId, productId)));
 	}
 	
 	@GetMapping("/{userId}/{productId}/{likeDate}")
-	public ResponseEntity<FavouriteDto> findById(
-			@PathVariable("userId") final String userId, 
-			@PathVariable("productId") final String productId, 
-			@PathVariable("likeDate") final String likeDate) {
+	public CompletableFuture<ResponseEntity<FavouriteDto>> findById(
+			@PathVariable("userId") final Integer userId, 
+			@PathVariable("productId") final Integer productId, 
+			@PathVariable("likeDate") final LocalDateTime likeDate, 
+			@RequestParam(name = "expand", required = false) final Set<FavouriteExpansion> expand) {
 		log.info("*** FavouriteDto, resource; fetch favourite by id *");
-		try {
-			// Decodificar la fecha si viene codificada en la URL
-			String decodedLikeDate = URLDecoder.decode(likeDate, StandardCharsets.UTF_8.name());
-			LocalDateTime parsedDate = LocalDateTime.parse(decodedLikeDate, DateTimeFormatter.ofPattern(AppConstant.LOCAL_DATE_TIME_FORMAT));
-			return ResponseEntity.ok(this.favouriteService.findById(
-					new FavouriteId(Integer.parseInt(userId), Integer.parseInt(productId), parsedDate)));
-		} catch (DateTimeParseException | IllegalArgumentException | UnsupportedEncodingException e) {
-			log.error("Error parsing likeDate: {}", likeDate, e);
-			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-		}
+		return this.favouriteService.findById(new FavouriteId(userId, productId, likeDate), FavouriteExpansion.of(expand))
+				.thenApply(ResponseEntity::ok);
 	}
 	
 	@GetMapping("/find")
-	public ResponseEntity<FavouriteDto> findById(
+	public CompletableFuture<ResponseEntity<FavouriteDto>> findById(
 			@RequestBody 
 			@NotNull(message = "Input must not be NULL") 
-			@Valid final FavouriteId favouriteId) {
+			@Valid final FavouriteId favouriteId, 
+			@RequestParam(name = "expand", required = false) final Set<FavouriteExpansion> expand) {
 		log.info("*** FavouriteDto, resource; fetch favourite by id *");
-		return ResponseEntity.ok(this.favouriteService.findById(favouriteId));
+		return this.favouriteService.findById(favouriteId, FavouriteExpansion.of(expand))
+				.thenApply(ResponseEntity::ok);
 	}
 	
 	@PostMapping
@@ -77,6 +229,8 @@ public class FavouriteResource {
 			@NotNull(message = "Input must not be NULL") 
 			@Valid final FavouriteDto favouriteDto) {
 		log.info("*** FavouriteDto, resource; save favourite *");
+		if (this.favouriteWriteBehindService.isEnabled())
+			return this.acceptAdd(favouriteDto);
 		return ResponseEntity.ok(this.favouriteService.save(favouriteDto));
 	}
 	
@@ -86,25 +240,39 @@ public class FavouriteResource {
 			@NotNull(message = "Input must not be NULL") 
 			@Valid final FavouriteDto favouriteDto) {
 		log.info("*** FavouriteDto, resource; update favourite *");
+		if (this.favouriteWriteBehindService.isEnabled())
+			return this.acceptUpdate(favouriteDto);
 		return ResponseEntity.ok(this.favouriteService.update(favouriteDto));
 	}
 	
+	@PostMapping("/bulk")
+	public ResponseEntity<DtoCollectionResponse<BulkResultDto>> saveAll(
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL") final List<FavouriteDto> favouriteDtos) {
+		log.info("*** BulkResultDto List, resource; save favourites in bulk *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.favouriteService.saveAll(favouriteDtos)));
+	}
+	
+	@DeleteMapping("/bulk")
+	public ResponseEntity<DtoCollectionResponse<BulkResultDto>> deleteAllById(
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL") final List<FavouriteId> favouriteIds) {
+		log.info("*** BulkResultDto List, resource; delete favourites in bulk *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.favouriteService.deleteAllById(favouriteIds)));
+	}
+	
+	@DeleteMapping("/users/{userId}")
+	public ResponseEntity<Integer> deleteAllByUserId(@PathVariable("userId") final Integer userId) {
+		log.info("*** Integer, resource; delete all favourites of user *");
+		return ResponseEntity.ok(this.favouriteService.deleteAllByUserId(userId));
+	}
+	
 	@DeleteMapping("/{userId}/{productId}/{likeDate}")
 	public ResponseEntity<Boolean> deleteById(
-			@PathVariable("userId") final String userId, 
-			@PathVariable("productId") final String productId, 
-			@PathVariable("likeDate") final String likeDate) {
-		log.info("*** Boolean, resource; delete favourite by id *");
-		try {
-			// Decodificar la fecha si viene codificada en la URL
-			String decodedLikeDate = URLDecoder.decode(likeDate, StandardCharsets.UTF_8.name());
-			LocalDateTime parsedDate = LocalDateTime.parse(decodedLikeDate, DateTimeFormatter.ofPattern(AppConstant.LOCAL_DATE_TIME_FORMAT));
-			this.favouriteService.deleteById(new FavouriteId(Integer.parseInt(userId), Integer.parseInt(productId), parsedDate));
-			return ResponseEntity.ok(true);
-		} catch (DateTimeParseException | IllegalArgumentException | UnsupportedEncodingException e) {
-			log.error("Error parsing likeDate for delete: {}", likeDate, e);
-			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-		}
+			@PathVariable("userId") final Integer userId, 
+			@PathVariable("productId") final Integer productId, 
+			@PathVariable("likeDate") final LocalDateTime likeDate) {
+		return this.deleteById(new FavouriteId(userId, productId, likeDate));
 	}
 	
 	@DeleteMapping("/delete")
@@ -113,10 +281,44 @@ public class FavouriteResource {
 			@NotNull(message = "Input must not be NULL") 
 			@Valid final FavouriteId favouriteId) {
 		log.info("*** Boolean, resource; delete favourite by id *");
+		if (this.favouriteWriteBehindService.isEnabled()) {
+			this.favouriteWriteBehindService.remove(favouriteId);
+			return ResponseEntity.accepted().body(true);
+		}
 		this.favouriteService.deleteById(favouriteId);
 		return ResponseEntity.ok(true);
 	}
 	
+	/**
+	 * Journals an add for the background flusher and answers 202 with the favourite's key.
+	 */
+	private ResponseEntity<FavouriteDto> acceptAdd(final FavouriteDto favouriteDto) {
+		final FavouriteId favouriteId = new FavouriteId(
+				favouriteDto.getUserId(), favouriteDto.getProductId(), favouriteDto.getLikeDate());
+		this.favouriteWriteBehindService.add(favouriteId);
+		return ResponseEntity.accepted().body(FavouriteMappingHelper.project(favouriteId));
+	}
+	
+	/**
+	 * Journals an update for the background flusher and answers 202 with the favourite's key.
+	 */
+	private ResponseEntity<FavouriteDto> acceptUpdate(final FavouriteDto favouriteDto) {
+		final FavouriteId favouriteId = new FavouriteId(
+				favouriteDto.getUserId(), favouriteDto.getProductId(), favouriteDto.getLikeDate());
+		this.favouriteWriteBehindService.update(favouriteId);
+		return ResponseEntity.accepted().body(FavouriteMappingHelper.project(favouriteId));
+	}
+	
+	/**
+	 * Reads a body to tag with {@code version}: from the replica once it has applied that
+	 * change, from the primary until then, so that no tag goes out on an older body.
+	 */
+	private <T> T readAt(final long version, final Supplier<T> reads) {
+		return this.favouriteService.findReadVersion() < version
+				? ReplicaRoutingDataSource.onPrimary(reads)
+				: reads.get();
+	}
+	
 	
 	
 }
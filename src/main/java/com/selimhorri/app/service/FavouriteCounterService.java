@@ -0,0 +1,11 @@
+package com.selimhorri.app.service;
+
+public interface FavouriteCounterService {
+	
+	long count(final Integer productId);
+	void increment(final Integer productId);
+	void decrement(final Integer productId);
+	void adjust(final Integer productId, final long delta);
+	int rebuild();
+	
+}
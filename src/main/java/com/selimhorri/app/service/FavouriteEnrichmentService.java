@@ -0,0 +1,17 @@
+package com.selimhorri.app.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.FavouriteExpansion;
+
+public interface FavouriteEnrichmentService {
+	
+	List<FavouriteDto> enrich(final List<FavouriteDto> favouriteDtos, final Set<FavouriteExpansion> expansions);
+	FavouriteDto enrich(final FavouriteDto favouriteDto, final Set<FavouriteExpansion> expansions);
+	CompletableFuture<List<FavouriteDto>> enrichAsync(final List<FavouriteDto> favouriteDtos, final Set<FavouriteExpansion> expansions);
+	CompletableFuture<FavouriteDto> enrichAsync(final FavouriteDto favouriteDto, final Set<FavouriteExpansion> expansions);
+	
+}
@@ -1,16 +1,39 @@
 package com.selimhorri.app.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.BulkResultDto;
 import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.FavouriteExpansion;
+import com.selimhorri.app.dto.FavouriteStateDto;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
 
 public interface FavouriteService {
 	
-	List<FavouriteDto> findAll();
-	FavouriteDto findById(final FavouriteId favouriteId);
+	CompletableFuture<List<FavouriteDto>> findAll(final Set<FavouriteExpansion> expansions);
+	DtoPageResponse<FavouriteDto> findPage(final String cursor, final Integer size, final Set<FavouriteExpansion> expansions);
+	DtoPageResponse<FavouriteDto> findPageByUserId(final Integer userId, final String cursor, final Integer limit, final Set<FavouriteExpansion> expansions);
+	DtoPageResponse<FavouriteDto> findPageByProductId(final Integer productId, final String cursor, final Integer limit, final Set<FavouriteExpansion> expansions);
+	long countByProductId(final Integer productId);
+	long countByProductIdSince(final Integer productId, final LocalDateTime since);
+	long findVersion();
+	long findVersionByUserId(final Integer userId);
+	long findVersionByProductId(final Integer productId);
+	long findReadVersion();
+	void streamAll(final Set<FavouriteExpansion> expansions, final Consumer<List<FavouriteDto>> batchConsumer);
+	CompletableFuture<FavouriteDto> findById(final FavouriteId favouriteId, final Set<FavouriteExpansion> expansions);
 	FavouriteDto save(final FavouriteDto favouriteDto);
 	FavouriteDto update(final FavouriteDto favouriteDto);
 	void deleteById(final FavouriteId favouriteId);
+	List<BulkResultDto> saveAll(final List<FavouriteDto> favouriteDtos);
+	List<BulkResultDto> deleteAllById(final List<FavouriteId> favouriteIds);
+	int deleteAllByUserId(final Integer userId);
+	FavouriteStateDto like(final Integer userId, final Integer productId);
+	FavouriteStateDto unlike(final Integer userId, final Integer productId);
 	
 }
@@ -0,0 +1,14 @@
+package com.selimhorri.app.service;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+
+public interface FavouriteWriteBehindService {
+	
+	boolean isEnabled();
+	void add(final FavouriteId favouriteId);
+	void update(final FavouriteId favouriteId);
+	void remove(final FavouriteId favouriteId);
+	int flush();
+	int pending();
+	
+}
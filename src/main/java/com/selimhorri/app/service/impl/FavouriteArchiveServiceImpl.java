@@ -0,0 +1,156 @@
+package com.selimhorri.app.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.config.archive.ArchiveProperties;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.repository.FavouritePartitionRepository;
+import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.FavouriteArchiveService;
+import com.selimhorri.app.service.FavouriteCounterService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves likes older than the configured horizon from {@code favourites} to
+ * {@code favourites_archive}, {@code batchSize} rows per transaction, oldest first, and
+ * uncounts them from their products. Every run also splits the months ahead out of the
+ * catch-all partition and drops the months it emptied; both do nothing on H2. Changes
+ * logged for listing versions are pruned on every run as well.
+ */
+@Service
+@Slf4j
+public class FavouriteArchiveServiceImpl implements FavouriteArchiveService {
+	
+	private final ArchiveProperties properties;
+	private final FavouriteRepository favouriteRepository;
+	private final FavouritePartitionRepository favouritePartitionRepository;
+	private final FavouriteCounterService favouriteCounterService;
+	private final TransactionTemplate transactionTemplate;
+	private final Counter archived;
+	
+	public FavouriteArchiveServiceImpl(
+			final ArchiveProperties properties,
+			final FavouriteRepository favouriteRepository,
+			final FavouritePartitionRepository favouritePartitionRepository,
+			final FavouriteCounterService favouriteCounterService,
+			final PlatformTransactionManager transactionManager,
+			final MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.favouriteRepository = favouriteRepository;
+		this.favouritePartitionRepository = favouritePartitionRepository;
+		this.favouriteCounterService = favouriteCounterService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.archived = Counter.builder("favourite.archive.archived")
+				.description("Likes moved to the archive table")
+				.register(meterRegistry);
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void addPartitions() {
+		try {
+			this.favouritePartitionRepository.addPartitionsThrough(YearMonth.now().plusMonths(this.properties.getPartitionsAhead()));
+		}
+		catch (Exception e) {
+			log.error("Error adding favourites partitions: {}", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Prunes the change log behind listing versions; it grows with every write.
+	 */
+	public void pruneChanges() {
+		try {
+			final int pruned = this.favouriteRepository.deleteChangesBefore(Instant.now().minus(this.properties.getChangeRetention()));
+			if (pruned > 0)
+				log.info("Pruned {} favourite changes older than {}", pruned, this.properties.getChangeRetention());
+		}
+		catch (Exception e) {
+			log.error("Error pruning favourite changes: {}", e.getMessage());
+		}
+	}
+	
+	@Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+	public void run() {
+		this.addPartitions();
+		this.pruneChanges();
+		if (!this.properties.isEnabled())
+			return;
+		try {
+			final int moved = this.archive();
+			if (moved > 0)
+				log.info("Archived {} favourites liked before the {} horizon", moved, this.properties.getHorizon());
+		}
+		catch (Exception e) {
+			log.error("Error archiving favourites, resuming on the next run: {}", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Archives every like older than the horizon and returns how many were moved. A failed
+	 * batch rolls back alone; the batches before it stay archived.
+	 */
+	@Override
+	public int archive() {
+		final LocalDateTime before = LocalDateTime.now().minus(this.properties.getHorizon());
+		final int batchSize = Math.max(1, this.properties.getBatchSize());
+		int moved = 0;
+		int selected;
+		do {
+			final int[] batch = this.transactionTemplate.execute(status -> this.archiveBatch(before, batchSize));
+			selected = batch[0];
+			moved += batch[1];
+		}
+		while (selected == batchSize);
+		
+		this.archived.increment(moved);
+		this.favouritePartitionRepository.dropEmptyPartitionsBefore(YearMonth.from(before));
+		return moved;
+	}
+	
+	/**
+	 * Copies the oldest batch of likes to the archive and deletes them; returns how many
+	 * likes were selected and how many of them this call deleted.
+	 */
+	private int[] archiveBatch(final LocalDateTime before, final int batchSize) {
+		final List<FavouriteId> favouriteIds = this.favouriteRepository.findIdsLikedBefore(before, PageRequest.of(0, batchSize));
+		if (favouriteIds.isEmpty())
+			return new int[] { 0, 0 };
+		
+		this.favouriteRepository.batchArchive(favouriteIds);
+		final int[] updateCounts = this.favouriteRepository.batchDelete(favouriteIds);
+		final Map<Integer, Long> deltas = new HashMap<>();
+		final List<FavouriteId> changed = new ArrayList<>(favouriteIds.size());
+		int deleted = 0;
+		for (int i = 0; i < favouriteIds.size(); i++) {
+			// Counts a driver does not report are left to reconciliation
+			if (updateCounts[i] > 0) {
+				deleted++;
+				deltas.merge(favouriteIds.get(i).getProductId(), -1L, Long::sum);
+			}
+			if (updateCounts[i] != 0)
+				changed.add(favouriteIds.get(i));
+		}
+		if (!changed.isEmpty())
+			this.favouriteRepository.recordChanges(changed);
+		deltas.forEach(this.favouriteCounterService::adjust);
+		return new int[] { favouriteIds.size(), deleted };
+	}
+	
+}
@@ -0,0 +1,177 @@
+package com.selimhorri.app.service.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.FavouriteCounterService;
+import com.selimhorri.app.util.IntLongHashMap;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the favourite count of every product in memory so product pages never run a
+ * COUNT query. Counts are loaded from the database once the application is ready,
+ * updated when a favourite write commits, and periodically reconciled against the
+ * database to absorb drift from writes that bypass this service. Updates made while a
+ * rebuild reads the counts are recorded and replayed on top of them before the swap; one
+ * that commits just before the read but lands just after the recording starts is counted
+ * twice, until the next reconciliation.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FavouriteCounterServiceImpl implements FavouriteCounterService {
+	
+	private final FavouriteRepository favouriteRepository;
+	private final StampedLock lock = new StampedLock();
+	private IntLongHashMap counts = new IntLongHashMap();
+	/** Updates made since the running rebuild started, {@code null} outside of one. */
+	private IntLongHashMap recorded;
+	private volatile boolean ready;
+	
+	@Override
+	public long count(final Integer productId) {
+		if (!this.ready)
+			return this.favouriteRepository.countByProductId(productId);
+		
+		// Not an optimistic read: a probe racing a rehash or rebuild can run off the arrays
+		final long stamp = this.lock.readLock();
+		try {
+			return Math.max(0L, this.counts.get(productId));
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+	
+	@Override
+	public void increment(final Integer productId) {
+		afterCommit(() -> this.add(productId, 1L));
+	}
+	
+	@Override
+	public void decrement(final Integer productId) {
+		afterCommit(() -> this.add(productId, -1L));
+	}
+	
+	@Override
+	public void adjust(final Integer productId, final long delta) {
+		if (delta != 0L)
+			afterCommit(() -> this.add(productId, delta));
+	}
+	
+	@Override
+	public synchronized int rebuild() {
+		log.info("*** Integer, service; rebuild favourite counters *");
+		long stamp = this.lock.writeLock();
+		try {
+			this.recorded = new IntLongHashMap();
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+		
+		final List<Object[]> rows;
+		try {
+			rows = this.favouriteRepository.countGroupByProductId();
+		}
+		catch (RuntimeException e) {
+			stamp = this.lock.writeLock();
+			try {
+				this.recorded = null;
+			}
+			finally {
+				this.lock.unlockWrite(stamp);
+			}
+			throw e;
+		}
+		final IntLongHashMap rebuilt = new IntLongHashMap(rows.size());
+		rows.forEach(row -> rebuilt.put((Integer) row[0], (Long) row[1]));
+		
+		final AtomicInteger drifted = new AtomicInteger();
+		stamp = this.lock.writeLock();
+		try {
+			// Updates that committed while the counts were read may be missing from them
+			this.recorded.forEach(rebuilt::addTo);
+			this.recorded = null;
+			if (this.ready) {
+				this.counts.forEach((productId, count) -> {
+					if (rebuilt.get(productId) != count)
+						drifted.incrementAndGet();
+				});
+			}
+			this.counts = rebuilt;
+			this.ready = true;
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+		
+		if (drifted.get() > 0)
+			log.warn("Favourite counters of {} products had drifted from the database", drifted.get());
+		return rebuilt.size();
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		try {
+			this.rebuild();
+		}
+		catch (Exception e) {
+			// Counts keep being answered by the database until the next reconciliation succeeds
+			log.error("Error loading favourite counters: {}", e.getMessage());
+		}
+	}
+	
+	@Scheduled(
+			initialDelayString = "${app.counters.reconcile-interval:PT10M}",
+			fixedDelayString = "${app.counters.reconcile-interval:PT10M}")
+	public void reconcile() {
+		try {
+			this.rebuild();
+		}
+		catch (Exception e) {
+			log.error("Error reconciling favourite counters: {}", e.getMessage());
+		}
+	}
+	
+	private void add(final Integer productId, final long delta) {
+		final long stamp = this.lock.writeLock();
+		try {
+			this.counts.addTo(productId, delta);
+			if (this.recorded != null)
+				this.recorded.addTo(productId, delta);
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Defers a counter update until the surrounding transaction commits, so rolled back
+	 * writes never show up in the counts.
+	 */
+	private static void afterCommit(final Runnable update) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			update.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				update.run();
+			}
+		});
+	}
+	
+}
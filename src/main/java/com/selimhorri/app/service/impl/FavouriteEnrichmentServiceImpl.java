@@ -0,0 +1,162 @@
+package com.selimhorri.app.service.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+
+import com.selimhorri.app.client.NearCache;
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.FavouriteExpansion;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.service.FavouriteEnrichmentService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves the users and products referenced by a batch of favourites, for the
+ * {@link FavouriteExpansion expansions} a caller asked for, concurrently
+ * through the near-caches, fetching each distinct id once and joining the results
+ * back onto the rows. The whole request shares one deadline; any lookup that fails or
+ * misses the deadline leaves the favourite with the DTO it already carries. A single
+ * favourite, as served by findById, degrades the same way, down to its bare key.
+ * <p>
+ * The asynchronous variants never block: their futures complete on the thread that
+ * finishes the last lookup, leaving the caller free while downstream calls are pending.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FavouriteEnrichmentServiceImpl implements FavouriteEnrichmentService {
+	
+	private final NearCache<UserDto> userNearCache;
+	private final NearCache<ProductDto> productNearCache;
+	private final EnrichmentProperties enrichmentProperties;
+	
+	@Override
+	public List<FavouriteDto> enrich(final List<FavouriteDto> favouriteDtos, final Set<FavouriteExpansion> expansions) {
+		return this.enrichAsync(favouriteDtos, expansions).join();
+	}
+	
+	@Override
+	public FavouriteDto enrich(final FavouriteDto favouriteDto, final Set<FavouriteExpansion> expansions) {
+		try {
+			return this.enrichAsync(favouriteDto, expansions).join();
+		}
+		catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+	
+	@Override
+	public CompletableFuture<List<FavouriteDto>> enrichAsync(final List<FavouriteDto> favouriteDtos,
+			final Set<FavouriteExpansion> expansions) {
+		if (expansions.isEmpty() || favouriteDtos.isEmpty())
+			return CompletableFuture.completedFuture(favouriteDtos);
+		log.info("*** FavouriteDto List, service; enrich favourites *");
+		final long deadline = System.nanoTime() + this.enrichmentProperties.getDeadline().toNanos();
+		final boolean expandUsers = expansions.contains(FavouriteExpansion.USER);
+		final boolean expandProducts = expansions.contains(FavouriteExpansion.PRODUCT);
+		
+		// Each distinct id is resolved exactly once, however many favourites reference it
+		final Map<Integer, CompletableFuture<UserDto>> users = expandUsers
+				? bestEffort(this.userNearCache.getAll(ids(favouriteDtos, FavouriteDto::getUserId)), deadline)
+				: Map.of();
+		final Map<Integer, CompletableFuture<ProductDto>> products = expandProducts
+				? bestEffort(this.productNearCache.getAll(ids(favouriteDtos, FavouriteDto::getProductId)), deadline)
+				: Map.of();
+		
+		return CompletableFuture.allOf(Stream.concat(users.values().stream(), products.values().stream())
+						.toArray(CompletableFuture[]::new))
+				.thenApply(done -> {
+					favouriteDtos.forEach(f -> {
+						if (expandUsers)
+							f.setUserDto(resolved(users.get(f.getUserId()), f.getUserDto()));
+						if (expandProducts)
+							f.setProductDto(resolved(products.get(f.getProductId()), f.getProductDto()));
+					});
+					return favouriteDtos;
+				});
+	}
+	
+	@Override
+	public CompletableFuture<FavouriteDto> enrichAsync(final FavouriteDto favouriteDto,
+			final Set<FavouriteExpansion> expansions) {
+		if (expansions.isEmpty())
+			return CompletableFuture.completedFuture(favouriteDto);
+		log.info("*** FavouriteDto, service; enrich favourite *");
+		final long timeout = this.enrichmentProperties.getDeadline().toNanos();
+		final CompletableFuture<UserDto> user = expansions.contains(FavouriteExpansion.USER)
+				? bestEffort(this.userNearCache.get(favouriteDto.getUserId()), timeout, "user", favouriteDto.getUserId())
+				: CompletableFuture.completedFuture(null);
+		final CompletableFuture<ProductDto> product = expansions.contains(FavouriteExpansion.PRODUCT)
+				? bestEffort(this.productNearCache.get(favouriteDto.getProductId()), timeout, "product", favouriteDto.getProductId())
+				: CompletableFuture.completedFuture(null);
+		
+		return user.thenCombine(product, (userDto, productDto) -> {
+			if (userDto != null)
+				favouriteDto.setUserDto(userDto);
+			if (productDto != null)
+				favouriteDto.setProductDto(productDto);
+			return favouriteDto;
+		});
+	}
+	
+	/**
+	 * Derives from each lookup a future that completes with {@code null} instead of
+	 * failing or outliving the deadline. Lookups are shared with concurrent requests,
+	 * so a late one is abandoned, never cancelled.
+	 */
+	private static <T> Map<Integer, CompletableFuture<T>> bestEffort(final Map<Integer, CompletableFuture<T>> pending,
+			final long deadline) {
+		final long remaining = Math.max(0L, deadline - System.nanoTime());
+		final Map<Integer, CompletableFuture<T>> bounded = new HashMap<>(pending.size() * 2);
+		pending.forEach((id, future) -> bounded.put(id, future
+				.handle((value, e) -> e == null ? value : null)
+				.completeOnTimeout(null, remaining, TimeUnit.NANOSECONDS)));
+		return bounded;
+	}
+	
+	private static Set<Integer> ids(final List<FavouriteDto> favouriteDtos, final Function<FavouriteDto, Integer> id) {
+		return favouriteDtos.stream()
+				.map(id)
+				.collect(Collectors.toSet());
+	}
+	
+	private static <T> T resolved(final CompletableFuture<T> future, final T fallback) {
+		final T value = future.getNow(null);
+		return value != null ? value : fallback;
+	}
+	
+	/**
+	 * The single-key counterpart of the map variant, logging why a lookup was given up.
+	 */
+	private static <T> CompletableFuture<T> bestEffort(final CompletableFuture<T> future, final long timeout,
+			final String resource, final Integer id) {
+		return future.copy()
+				.orTimeout(timeout, TimeUnit.NANOSECONDS)
+				.handle((value, e) -> {
+					if (e == null)
+						return value;
+					final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+					if (cause instanceof TimeoutException)
+						log.warn("Timed out fetching {} {}, leaving it unexpanded", resource, id);
+					else
+						log.warn("Error fetching {} {}, leaving it unexpanded: {}", resource, id, cause.getMessage());
+					return null;
+				});
+	}
+	
+}
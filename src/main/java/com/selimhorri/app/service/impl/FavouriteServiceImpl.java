@@ -1,26 +1,50 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import javax.transaction.Transactional;
-
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.BulkResultDto;
 import com.selimhorri.app.dto.FavouriteDto;
-import com.selimhorri.app.dto.ProductDto;
-import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.FavouriteExpansion;
+import com.selimhorri.app.dto.FavouriteStateDto;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
+import com.selimhorri.app.exception.wrapper.BulkLimitExceededException;
 import com.selimhorri.app.exception.wrapper.FavouriteNotFoundException;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+import com.selimhorri.app.helper.FavouriteCursorHelper;
 import com.selimhorri.app.helper.FavouriteMappingHelper;
 import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.FavouriteCounterService;
+import com.selimhorri.app.service.FavouriteEnrichmentService;
 import com.selimhorri.app.service.FavouriteService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Reads run in read-only transactions, so Hibernate neither flushes nor keeps snapshots
+ * of what they load, and a configured read replica serves them.
+ */
 @Service
 @Transactional
 @Slf4j
@@ -28,84 +52,396 @@ import lombok.extern.slf4j.Slf4j;
 public class FavouriteServiceImpl implements FavouriteService {
 
 	private final FavouriteRepository favouriteRepository;
-	private final RestTemplate restTemplate;
+	private final FavouriteEnrichmentService favouriteEnrichmentService;
+	private final FavouriteCounterService favouriteCounterService;
 
 	@Override
-	public List<FavouriteDto> findAll() {
+	@Transactional(readOnly = true)
+	public CompletableFuture<List<FavouriteDto>> findAll(final Set<FavouriteExpansion> expansions) {
 		log.info("*** FavouriteDto List, service; fetch all favourites *");
-		return this.favouriteRepository.findAll()
-				.stream()
-				.map(FavouriteMappingHelper::map)
-				.map(f -> {
-					try {
-						f.setUserDto(this.restTemplate
-								.getForObject(
-										AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/" + f.getUserId(),
-										UserDto.class));
-					} catch (Exception e) {
-						log.error("Error fetching user {}: {}", f.getUserId(), e.getMessage());
-						// Continuar sin userDto si falla
-					}
-					try {
-						f.setProductDto(this.restTemplate
-								.getForObject(AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL + "/"
-										+ f.getProductId(), ProductDto.class));
-					} catch (Exception e) {
-						log.error("Error fetching product {}: {}", f.getProductId(), e.getMessage());
-						// Continuar sin productDto si falla
-					}
-					return f;
-				})
-				.distinct()
-				.collect(Collectors.toUnmodifiableList());
-	}
-
-	@Override
-	public FavouriteDto findById(final FavouriteId favouriteId) {
+		return this.favouriteEnrichmentService.enrichAsync(
+				this.favouriteRepository.findAll()
+						.stream()
+						.map(FavouriteMappingHelper::project)
+						.distinct()
+						.collect(Collectors.toList()), expansions)
+				.thenApply(Collections::unmodifiableList);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public DtoPageResponse<FavouriteDto> findPage(final String cursor, final Integer size, final Set<FavouriteExpansion> expansions) {
+		log.info("*** FavouriteDto Page, service; fetch page of favourites *");
+		final int pageSize = pageSize(size);
+		
+		final List<Favourite> rows;
+		if (cursor == null || cursor.isBlank()) {
+			rows = this.favouriteRepository.findFirstPage(lookAhead(pageSize));
+		}
+		else {
+			final FavouriteId after = FavouriteCursorHelper.decode(cursor);
+			rows = this.favouriteRepository.findPageAfter(
+					after.getUserId(), after.getProductId(), after.getLikeDate(), lookAhead(pageSize));
+		}
+		
+		return this.toPage(rows.stream()
+				.map(FavouriteMappingHelper::project)
+				.collect(Collectors.toList()), pageSize, expansions);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public DtoPageResponse<FavouriteDto> findPageByUserId(final Integer userId, final String cursor, final Integer limit,
+			final Set<FavouriteExpansion> expansions) {
+		log.info("*** FavouriteDto Page, service; fetch page of favourites by user id *");
+		final int pageSize = pageSize(limit);
+		
+		final List<FavouriteId> rows;
+		if (cursor == null || cursor.isBlank()) {
+			rows = this.favouriteRepository.findIdsByUserId(userId, lookAhead(pageSize));
+		}
+		else {
+			final FavouriteId after = FavouriteCursorHelper.decode(cursor);
+			if (!userId.equals(after.getUserId()))
+				throw new InvalidCursorException(String.format("Cursor: [%s] does not belong to user: [%s]", cursor, userId));
+			rows = this.favouriteRepository.findIdsByUserIdBefore(
+					userId, after.getLikeDate(), after.getProductId(), lookAhead(pageSize));
+		}
+		
+		return this.toPage(rows.stream()
+				.map(FavouriteMappingHelper::project)
+				.collect(Collectors.toList()), pageSize, expansions);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public DtoPageResponse<FavouriteDto> findPageByProductId(final Integer productId, final String cursor, final Integer limit,
+			final Set<FavouriteExpansion> expansions) {
+		log.info("*** FavouriteDto Page, service; fetch page of favourites by product id *");
+		final int pageSize = pageSize(limit);
+		
+		final List<FavouriteId> rows;
+		if (cursor == null || cursor.isBlank()) {
+			rows = this.favouriteRepository.findIdsByProductId(productId, lookAhead(pageSize));
+		}
+		else {
+			final FavouriteId after = FavouriteCursorHelper.decode(cursor);
+			if (!productId.equals(after.getProductId()))
+				throw new InvalidCursorException(String.format("Cursor: [%s] does not belong to product: [%s]", cursor, productId));
+			rows = this.favouriteRepository.findIdsByProductIdBefore(
+					productId, after.getLikeDate(), after.getUserId(), lookAhead(pageSize));
+		}
+		
+		return this.toPage(rows.stream()
+				.map(FavouriteMappingHelper::project)
+				.collect(Collectors.toList()), pageSize, expansions);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long countByProductId(final Integer productId) {
+		log.info("*** Long, service; count favourites by product id *");
+		return this.favouriteCounterService.count(productId);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long countByProductIdSince(final Integer productId, final LocalDateTime since) {
+		log.info("*** Long, service; count recent favourites by product id *");
+		return this.favouriteRepository.countByProductIdSince(productId, since);
+	}
+
+	/**
+	 * Versions are read on the primary: a lagging replica would hand back the version a
+	 * client held before its own write, and answer 304 with the old listing.
+	 */
+	@Override
+	public long findVersion() {
+		return this.favouriteRepository.findVersion();
+	}
+
+	@Override
+	public long findVersionByUserId(final Integer userId) {
+		return this.favouriteRepository.findVersionByUserId(userId);
+	}
+
+	@Override
+	public long findVersionByProductId(final Integer productId) {
+		return this.favouriteRepository.findVersionByProductId(productId);
+	}
+
+	/**
+	 * Version of the whole table as reads see it, on the replica when one is configured.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long findReadVersion() {
+		return this.favouriteRepository.findVersion();
+	}
+
+	/**
+	 * Expands the rows of one page and points the cursor at its last row. {@code rows}
+	 * holds up to one row more than the page, telling whether another page follows.
+	 */
+	private DtoPageResponse<FavouriteDto> toPage(final List<FavouriteDto> rows, final int pageSize,
+			final Set<FavouriteExpansion> expansions) {
+		final boolean hasNext = rows.size() > pageSize;
+		final List<FavouriteDto> page = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+		final FavouriteDto last = page.isEmpty() ? null : page.get(page.size() - 1);
+		
+		return DtoPageResponse.<FavouriteDto>builder()
+				.collection(Collections.unmodifiableList(this.favouriteEnrichmentService.enrich(page, expansions)))
+				.hasNext(hasNext)
+				.nextCursor(hasNext
+						? FavouriteCursorHelper.encode(new FavouriteId(last.getUserId(), last.getProductId(), last.getLikeDate()))
+						: null)
+				.build();
+	}
+
+	private static int pageSize(final Integer size) {
+		return size == null
+				? AppConstant.DEFAULT_PAGE_SIZE
+				: Math.max(1, Math.min(size, AppConstant.MAX_PAGE_SIZE));
+	}
+
+	private static Pageable lookAhead(final int pageSize) {
+		// One extra row tells whether another page follows without a COUNT query
+		return PageRequest.of(0, pageSize + 1);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void streamAll(final Set<FavouriteExpansion> expansions, final Consumer<List<FavouriteDto>> batchConsumer) {
+		log.info("*** FavouriteDto Stream, service; stream all favourites *");
+		try (Stream<FavouriteId> ids = this.favouriteRepository.streamAllIds()) {
+			final Iterator<FavouriteId> iterator = ids.iterator();
+			List<FavouriteDto> batch = new ArrayList<>(AppConstant.EXPORT_BATCH_SIZE);
+			while (iterator.hasNext()) {
+				batch.add(FavouriteMappingHelper.project(iterator.next()));
+				if (batch.size() == AppConstant.EXPORT_BATCH_SIZE) {
+					batchConsumer.accept(this.favouriteEnrichmentService.enrich(batch, expansions));
+					batch = new ArrayList<>(AppConstant.EXPORT_BATCH_SIZE);
+				}
+			}
+			if (!batch.isEmpty())
+				batchConsumer.accept(this.favouriteEnrichmentService.enrich(batch, expansions));
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CompletableFuture<FavouriteDto> findById(final FavouriteId favouriteId, final Set<FavouriteExpansion> expansions) {
 		log.info("*** FavouriteDto, service; fetch favourite by id *");
 		return this.favouriteRepository.findById(favouriteId)
-				.map(FavouriteMappingHelper::map)
-				.map(f -> {
-					try {
-						f.setUserDto(this.restTemplate
-								.getForObject(
-										AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/" + f.getUserId(),
-										UserDto.class));
-					} catch (Exception e) {
-						log.error("Error fetching user {}: {}", f.getUserId(), e.getMessage());
-						// Lanzar excepción para que el handler la capture
-						throw new RuntimeException("Failed to fetch user data: " + e.getMessage(), e);
-					}
-					try {
-						f.setProductDto(this.restTemplate
-								.getForObject(AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL + "/"
-										+ f.getProductId(), ProductDto.class));
-					} catch (Exception e) {
-						log.error("Error fetching product {}: {}", f.getProductId(), e.getMessage());
-						// Lanzar excepción para que el handler la capture
-						throw new RuntimeException("Failed to fetch product data: " + e.getMessage(), e);
-					}
-					return f;
-				})
+				.map(FavouriteMappingHelper::project)
+				.map(favouriteDto -> this.favouriteEnrichmentService.enrichAsync(favouriteDto, expansions))
 				.orElseThrow(() -> new FavouriteNotFoundException(
 						String.format("Favourite with id: [%s] not found!", favouriteId)));
 	}
 
 	@Override
 	public FavouriteDto save(final FavouriteDto favouriteDto) {
-		return FavouriteMappingHelper.map(this.favouriteRepository
-				.save(FavouriteMappingHelper.map(favouriteDto)));
+		final FavouriteId favouriteId = keyOf(favouriteDto);
+		if (!this.insert(favouriteId))
+			this.touch(favouriteId);
+		return FavouriteMappingHelper.map(favouriteId);
 	}
 
 	@Override
 	public FavouriteDto update(final FavouriteDto favouriteDto) {
-		return FavouriteMappingHelper.map(this.favouriteRepository
-				.save(FavouriteMappingHelper.map(favouriteDto)));
+		final FavouriteId favouriteId = keyOf(favouriteDto);
+		if (!this.touch(favouriteId))
+			this.insert(favouriteId);
+		return FavouriteMappingHelper.map(favouriteId);
 	}
 
 	@Override
 	public void deleteById(final FavouriteId favouriteId) {
-		this.favouriteRepository.deleteById(favouriteId);
+		final int deleted = this.favouriteRepository.deleteByKey(
+				favouriteId.getUserId(), favouriteId.getProductId(), favouriteId.getLikeDate());
+		if (deleted == 0)
+			throw new FavouriteNotFoundException(
+					String.format("Favourite with id: [%s] not found!", favouriteId));
+		this.favouriteRepository.recordChange(favouriteId.getUserId(), favouriteId.getProductId());
+		this.favouriteCounterService.decrement(favouriteId.getProductId());
+	}
+
+	@Override
+	public List<BulkResultDto> saveAll(final List<FavouriteDto> favouriteDtos) {
+		log.info("*** BulkResultDto List, service; save favourites in bulk *");
+		checkBulkSize(favouriteDtos.size());
+		
+		final List<BulkResultDto> results = new ArrayList<>(favouriteDtos.size());
+		final List<BulkResultDto> submitted = new ArrayList<>(favouriteDtos.size());
+		final List<FavouriteId> favouriteIds = new ArrayList<>(favouriteDtos.size());
+		for (int i = 0; i < favouriteDtos.size(); i++) {
+			final FavouriteDto favouriteDto = favouriteDtos.get(i);
+			final BulkResultDto result = favouriteDto == null
+					? BulkResultDto.builder().index(i).build()
+					: BulkResultDto.builder()
+							.index(i)
+							.userId(favouriteDto.getUserId())
+							.productId(favouriteDto.getProductId())
+							.likeDate(favouriteDto.getLikeDate())
+							.build();
+			results.add(result);
+			if (result.getUserId() == null || result.getProductId() == null || result.getLikeDate() == null) {
+				result.setStatus(BulkResultDto.Status.INVALID);
+				continue;
+			}
+			submitted.add(result);
+			favouriteIds.add(new FavouriteId(result.getUserId(), result.getProductId(), result.getLikeDate()));
+		}
+		
+		this.applyBatch(submitted, this.favouriteRepository.batchInsertIfAbsent(favouriteIds),
+				BulkResultDto.Status.CREATED, BulkResultDto.Status.DUPLICATE, 1L);
+		return Collections.unmodifiableList(results);
+	}
+
+	@Override
+	public List<BulkResultDto> deleteAllById(final List<FavouriteId> favouriteIds) {
+		log.info("*** BulkResultDto List, service; delete favourites in bulk *");
+		checkBulkSize(favouriteIds.size());
+		
+		final List<BulkResultDto> results = new ArrayList<>(favouriteIds.size());
+		final List<BulkResultDto> submitted = new ArrayList<>(favouriteIds.size());
+		final List<FavouriteId> validIds = new ArrayList<>(favouriteIds.size());
+		for (int i = 0; i < favouriteIds.size(); i++) {
+			final FavouriteId favouriteId = favouriteIds.get(i);
+			final BulkResultDto result = favouriteId == null
+					? BulkResultDto.builder().index(i).build()
+					: BulkResultDto.builder()
+							.index(i)
+							.userId(favouriteId.getUserId())
+							.productId(favouriteId.getProductId())
+							.likeDate(favouriteId.getLikeDate())
+							.build();
+			results.add(result);
+			if (result.getUserId() == null || result.getProductId() == null || result.getLikeDate() == null) {
+				result.setStatus(BulkResultDto.Status.INVALID);
+				continue;
+			}
+			submitted.add(result);
+			validIds.add(favouriteId);
+		}
+		
+		this.applyBatch(submitted, this.favouriteRepository.batchDelete(validIds),
+				BulkResultDto.Status.DELETED, BulkResultDto.Status.NOT_FOUND, -1L);
+		return Collections.unmodifiableList(results);
+	}
+
+	@Override
+	public int deleteAllByUserId(final Integer userId) {
+		log.info("*** Integer, service; delete all favourites of user *");
+		final List<Object[]> perProduct = this.favouriteRepository.countGroupByProductIdForUserId(userId);
+		if (!perProduct.isEmpty())
+			this.favouriteRepository.recordChangesByUserId(userId);
+		final int deleted = this.favouriteRepository.deleteAllByUserId(userId);
+		perProduct.forEach(row -> this.favouriteCounterService.adjust((Integer) row[0], -(Long) row[1]));
+		return deleted;
+	}
+
+	@Override
+	public FavouriteStateDto like(final Integer userId, final Integer productId) {
+		log.info("*** FavouriteStateDto, service; like product *");
+		final Instant now = Instant.now();
+		// The pair's unique row decides the like. A row left behind by favourites deleted some
+		// other way is cleared and claimed again; the plain read first keeps concurrent likes
+		// of a liked pair from all queueing up to delete its row
+		final boolean claimed = this.favouriteRepository.insertLikeIfAbsent(userId, productId, now)
+				|| (!this.favouriteRepository.existsByUserIdAndProductId(userId, productId)
+						&& this.favouriteRepository.deleteLikeIfNoFavourite(userId, productId) > 0
+						&& this.favouriteRepository.insertLikeIfAbsent(userId, productId, now));
+		final boolean inserted = claimed && this.favouriteRepository.insertIfNotLiked(
+				userId, productId, LocalDateTime.ofInstant(now, ZoneId.systemDefault()), now) > 0;
+		if (inserted) {
+			this.favouriteRepository.recordChange(userId, productId);
+			this.favouriteCounterService.increment(productId);
+		}
+		return FavouriteStateDto.builder()
+				.userId(userId)
+				.productId(productId)
+				.liked(true)
+				.changed(inserted)
+				.build();
+	}
+
+	@Override
+	public FavouriteStateDto unlike(final Integer userId, final Integer productId) {
+		log.info("*** FavouriteStateDto, service; unlike product *");
+		this.favouriteRepository.deleteLike(userId, productId);
+		final int deleted = this.favouriteRepository.deleteAllByUserIdAndProductId(userId, productId);
+		if (deleted > 0)
+			this.favouriteRepository.recordChange(userId, productId);
+		this.favouriteCounterService.adjust(productId, -deleted);
+		return FavouriteStateDto.builder()
+				.userId(userId)
+				.productId(productId)
+				.liked(false)
+				.changed(deleted > 0)
+				.build();
+	}
+
+	/**
+	 * Records the outcome of each submitted item from its JDBC update count and moves the
+	 * product counters by {@code delta} per affected row. Drivers that rewrite batches may
+	 * not report per-row counts; those items are {@code ACCEPTED} and left to reconciliation,
+	 * but still logged as changes, like every applied item.
+	 */
+	private void applyBatch(
+			final List<BulkResultDto> submitted,
+			final int[] updateCounts,
+			final BulkResultDto.Status applied,
+			final BulkResultDto.Status skipped,
+			final long delta) {
+		final Map<Integer, Long> deltas = new HashMap<>();
+		final List<FavouriteId> changed = new ArrayList<>(submitted.size());
+		for (int i = 0; i < submitted.size(); i++) {
+			final BulkResultDto result = submitted.get(i);
+			if (updateCounts[i] > 0) {
+				result.setStatus(applied);
+				deltas.merge(result.getProductId(), delta, Long::sum);
+			}
+			else if (updateCounts[i] == 0) {
+				result.setStatus(skipped);
+				continue;
+			}
+			else {
+				result.setStatus(BulkResultDto.Status.ACCEPTED);
+			}
+			changed.add(new FavouriteId(result.getUserId(), result.getProductId(), result.getLikeDate()));
+		}
+		if (!changed.isEmpty())
+			this.favouriteRepository.recordChanges(changed);
+		deltas.forEach(this.favouriteCounterService::adjust);
+	}
+
+	private static void checkBulkSize(final int size) {
+		if (size > AppConstant.MAX_BULK_SIZE)
+			throw new BulkLimitExceededException(String.format(
+					"Bulk request of: [%s] items exceeds the limit of: [%s]", size, AppConstant.MAX_BULK_SIZE));
+	}
+
+	/**
+	 * Inserts the favourite unless it exists, counting it for its product when it adds a row.
+	 */
+	private boolean insert(final FavouriteId favouriteId) {
+		final boolean inserted = this.favouriteRepository.insertIfAbsent(
+				favouriteId.getUserId(), favouriteId.getProductId(), favouriteId.getLikeDate(), Instant.now()) > 0;
+		if (inserted) {
+			this.favouriteRepository.recordChange(favouriteId.getUserId(), favouriteId.getProductId());
+			this.favouriteCounterService.increment(favouriteId.getProductId());
+		}
+		return inserted;
+	}
+
+	private boolean touch(final FavouriteId favouriteId) {
+		return this.favouriteRepository.touch(
+				favouriteId.getUserId(), favouriteId.getProductId(), favouriteId.getLikeDate(), Instant.now()) > 0;
+	}
+
+	private static FavouriteId keyOf(final FavouriteDto favouriteDto) {
+		return new FavouriteId(favouriteDto.getUserId(), favouriteDto.getProductId(), favouriteDto.getLikeDate());
 	}
 
 }
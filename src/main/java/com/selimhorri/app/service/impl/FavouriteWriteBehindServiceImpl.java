@@ -0,0 +1,356 @@
+package com.selimhorri.app.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.config.writebehind.WriteBehindProperties;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.exception.wrapper.WriteBacklogFullException;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
+import com.selimhorri.app.journal.FavouriteJournal;
+import com.selimhorri.app.journal.FavouriteJournal.Operation;
+import com.selimhorri.app.service.FavouriteService;
+import com.selimhorri.app.service.FavouriteWriteBehindService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Acknowledges single favourite writes once they are in the {@link FavouriteJournal},
+ * leaving a background flusher to apply them to the database.
+ * <p>
+ * Pending writes are merged by key, the later one winning (see {@link #merge}), so an add
+ * and a remove of the same favourite between two flushes cost one statement, and none at
+ * all when the add found nothing of the favourite pending or being flushed: such an add
+ * was never written, and the remove cancels it. Each flush rolls the journal, applies
+ * what was pending in transactions of {@code flushSize} writes, adds and removes through
+ * the bulk operations and updates one by one, so that they touch the favourite as
+ * {@link FavouriteService#update} does, and only then deletes the rolled segments; a
+ * failed flush keeps them and puts its writes back under any newer ones. Writers wait while the journal is over
+ * {@code maxJournalSize} and are turned away after {@code backpressureTimeout}.
+ * Segments left by a previous run are replayed into the pending writes on startup.
+ * <p>
+ * Reads do not see a write until it is flushed.
+ */
+@Service
+@Slf4j
+public class FavouriteWriteBehindServiceImpl implements FavouriteWriteBehindService {
+
+	private final WriteBehindProperties properties;
+	private final FavouriteService favouriteService;
+	private final TransactionTemplate transactionTemplate;
+	private final MeterRegistry meterRegistry;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition drained = this.lock.newCondition();
+	private Map<FavouriteId, Operation> pending = new LinkedHashMap<>();
+	/** Pending favourites first added since the last roll, with nothing of them written yet. */
+	private Set<FavouriteId> fresh = new HashSet<>();
+	private Map<FavouriteId, Operation> flushing = Map.of();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+	private FavouriteJournal journal;
+	private ScheduledExecutorService flusher;
+	private Counter added;
+	private Counter removed;
+	private Counter updated;
+	private Counter rejected;
+	private Timer flushes;
+
+	public FavouriteWriteBehindServiceImpl(
+			final WriteBehindProperties properties,
+			final FavouriteService favouriteService,
+			final PlatformTransactionManager transactionManager,
+			final MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.favouriteService = favouriteService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	public void start() throws IOException {
+		if (!this.properties.isEnabled())
+			return;
+		this.journal = new FavouriteJournal(this.properties.getJournalDir(), this.properties.isSync());
+		// Replayed adds may have been written before the restart, so none of them is fresh
+		final int replayed = this.journal.replay((operation, favouriteId) -> this.pending.put(favouriteId, operation));
+		if (replayed > 0)
+			log.info("Replayed {} journaled favourite writes into {} pending", replayed, this.pending.size());
+
+		this.added = Counter.builder("favourite.write-behind.flushed")
+				.description("Journaled writes applied to the database")
+				.tag("operation", "add")
+				.register(this.meterRegistry);
+		this.removed = Counter.builder("favourite.write-behind.flushed")
+				.description("Journaled writes applied to the database")
+				.tag("operation", "remove")
+				.register(this.meterRegistry);
+		this.updated = Counter.builder("favourite.write-behind.flushed")
+				.description("Journaled writes applied to the database")
+				.tag("operation", "update")
+				.register(this.meterRegistry);
+		this.rejected = Counter.builder("favourite.write-behind.rejected")
+				.description("Writes turned away because the journal stayed full")
+				.register(this.meterRegistry);
+		this.flushes = Timer.builder("favourite.write-behind.flush.duration")
+				.register(this.meterRegistry);
+		Gauge.builder("favourite.write-behind.pending", this, FavouriteWriteBehindServiceImpl::pending)
+				.description("Merged writes waiting to be flushed")
+				.register(this.meterRegistry);
+		Gauge.builder("favourite.write-behind.journal.size", this.journal, FavouriteJournal::size)
+				.description("Bytes held by the journal")
+				.baseUnit("bytes")
+				.register(this.meterRegistry);
+
+		this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			final Thread thread = new Thread(r, "write-behind-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final long interval = this.properties.getFlushInterval().toNanos();
+		this.flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+	}
+
+	@PreDestroy
+	public void stop() throws IOException {
+		if (this.journal == null)
+			return;
+		this.flusher.shutdownNow();
+		try {
+			this.flusher.awaitTermination(10, TimeUnit.SECONDS);
+			this.flush();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (RuntimeException e) {
+			log.error("Error flushing favourite writes on shutdown, leaving them to replay: {}", e.getMessage());
+		}
+		this.journal.close();
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return this.journal != null;
+	}
+
+	@Override
+	public void add(final FavouriteId favouriteId) {
+		this.append(Operation.ADD, favouriteId);
+	}
+
+	@Override
+	public void update(final FavouriteId favouriteId) {
+		this.append(Operation.UPDATE, favouriteId);
+	}
+
+	@Override
+	public void remove(final FavouriteId favouriteId) {
+		this.append(Operation.REMOVE, favouriteId);
+	}
+
+	@Override
+	public int pending() {
+		this.lock.lock();
+		try {
+			return this.pending.size();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Applies every pending write and returns how many there were. Called by the flusher;
+	 * a failed flush leaves its writes pending and its segments on disk.
+	 */
+	@Override
+	public synchronized int flush() {
+		final Map<FavouriteId, Operation> batch;
+		final long segment;
+		this.lock.lock();
+		try {
+			if (this.pending.isEmpty())
+				return 0;
+			batch = this.pending;
+			this.pending = new LinkedHashMap<>();
+			this.fresh = new HashSet<>();
+			this.flushing = batch;
+			segment = this.journal.roll();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			this.lock.unlock();
+		}
+
+		final long start = System.nanoTime();
+		try {
+			final List<Map.Entry<FavouriteId, Operation>> writes = new ArrayList<>(batch.entrySet());
+			final int flushSize = Math.max(1, Math.min(this.properties.getFlushSize(), AppConstant.MAX_BULK_SIZE));
+			for (int from = 0; from < writes.size(); from += flushSize)
+				this.apply(writes.subList(from, Math.min(from + flushSize, writes.size())));
+			this.journal.deleteThrough(segment);
+		}
+		catch (IOException | RuntimeException e) {
+			this.lock.lock();
+			try {
+				// Writes made since the roll are newer and win
+				batch.forEach(this.pending::putIfAbsent);
+				this.flushing = Map.of();
+			}
+			finally {
+				this.lock.unlock();
+			}
+			throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+		}
+		finally {
+			this.flushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+
+		this.lock.lock();
+		try {
+			this.flushing = Map.of();
+			this.drained.signalAll();
+		}
+		finally {
+			this.lock.unlock();
+		}
+		return batch.size();
+	}
+
+	private void append(final Operation operation, final FavouriteId favouriteId) {
+		final long position;
+		final int size;
+		this.lock.lock();
+		try {
+			this.awaitRoom();
+			// Journal and pending writes change together, so a roll never splits them
+			position = this.journal.write(operation, favouriteId);
+			this.enqueue(operation, favouriteId);
+			size = this.pending.size();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			this.lock.unlock();
+		}
+
+		if (size >= this.properties.getFlushSize() && this.flushRequested.compareAndSet(false, true))
+			this.flusher.execute(this::flushQuietly);
+		try {
+			this.journal.sync(position);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Adds a write to the pending ones, called with the lock held.
+	 */
+	private void enqueue(final Operation operation, final FavouriteId favouriteId) {
+		final Operation previous = this.pending.get(favouriteId);
+		if (operation == Operation.REMOVE && this.fresh.remove(favouriteId)) {
+			this.pending.remove(favouriteId);
+			return;
+		}
+		if (operation == Operation.ADD && previous == null && !this.flushing.containsKey(favouriteId))
+			this.fresh.add(favouriteId);
+		this.pending.put(favouriteId, previous == null ? operation : merge(previous, operation));
+	}
+
+	/**
+	 * Folds a write into the one pending for the same favourite: an update absorbs an add,
+	 * as it inserts a missing favourite too; otherwise the later write stands.
+	 */
+	private static Operation merge(final Operation previous, final Operation next) {
+		return previous == Operation.UPDATE && next == Operation.ADD ? Operation.UPDATE : next;
+	}
+
+	/**
+	 * Waits, holding the lock, until the journal is back under its limit.
+	 */
+	private void awaitRoom() {
+		final long limit = this.properties.getMaxJournalSize().toBytes();
+		long remaining = this.properties.getBackpressureTimeout().toNanos();
+		while (this.journal.size() >= limit) {
+			if (this.flushRequested.compareAndSet(false, true))
+				this.flusher.execute(this::flushQuietly);
+			if (remaining <= 0L) {
+				this.rejected.increment();
+				throw new WriteBacklogFullException(String.format(
+						"Write journal is over its limit of: [%s] bytes", limit));
+			}
+			try {
+				remaining = this.drained.awaitNanos(remaining);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new WriteBacklogFullException("Interrupted while waiting for room in the write journal", e);
+			}
+		}
+	}
+
+	private void apply(final List<Map.Entry<FavouriteId, Operation>> writes) {
+		final List<FavouriteDto> adds = new ArrayList<>();
+		final List<FavouriteDto> updates = new ArrayList<>();
+		final List<FavouriteId> removes = new ArrayList<>();
+		writes.forEach(write -> {
+			if (write.getValue() == Operation.ADD)
+				adds.add(FavouriteMappingHelper.project(write.getKey()));
+			else if (write.getValue() == Operation.UPDATE)
+				updates.add(FavouriteMappingHelper.project(write.getKey()));
+			else
+				removes.add(write.getKey());
+		});
+		this.transactionTemplate.executeWithoutResult(status -> {
+			if (!adds.isEmpty())
+				this.favouriteService.saveAll(adds);
+			updates.forEach(this.favouriteService::update);
+			if (!removes.isEmpty())
+				this.favouriteService.deleteAllById(removes);
+		});
+		this.added.increment(adds.size());
+		this.updated.increment(updates.size());
+		this.removed.increment(removes.size());
+	}
+
+	private void flushQuietly() {
+		this.flushRequested.set(false);
+		try {
+			this.flush();
+		}
+		catch (Exception e) {
+			log.error("Error flushing favourite writes, retrying on the next flush: {}", e.getMessage());
+		}
+	}
+
+}
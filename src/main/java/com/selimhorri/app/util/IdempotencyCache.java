@@ -0,0 +1,112 @@
+package com.selimhorri.app.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import com.selimhorri.app.exception.wrapper.IdempotencyKeyReusedException;
+
+/**
+ * Remembers the outcome of calls made under a client-chosen idempotency key, so a retry
+ * is answered from memory without running the call again. A retry arriving while the
+ * first call is still running waits for its outcome. Failed calls are forgotten and may
+ * be retried. Keys expire after {@code ttl}; the least recently used go first once
+ * {@code maxKeys} are held. Keys live in this process only.
+ */
+public class IdempotencyCache<V> {
+	
+	private final Duration ttl;
+	private final int maxKeys;
+	private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(256, 0.75f, true);
+	
+	public IdempotencyCache(final Duration ttl, final int maxKeys) {
+		this.ttl = ttl;
+		this.maxKeys = maxKeys;
+	}
+	
+	/**
+	 * Runs the call once per key. {@code request} identifies what was asked; reusing a key
+	 * for a different request fails with {@link IdempotencyKeyReusedException}. Without a
+	 * key the call simply runs.
+	 */
+	public V execute(final String key, final Object request, final Supplier<V> call) {
+		if (key == null || key.isBlank())
+			return call.get();
+		
+		final long now = System.nanoTime();
+		final Entry<V> entry;
+		final Entry<V> existing;
+		synchronized (this.entries) {
+			final Entry<V> held = this.entries.get(key);
+			if (held != null && now - held.createdAt < this.ttl.toNanos()) {
+				existing = held;
+				entry = null;
+			}
+			else {
+				existing = null;
+				entry = new Entry<>(request, now);
+				this.entries.put(key, entry);
+				this.evict(now);
+			}
+		}
+		
+		if (existing != null) {
+			if (!Objects.equals(existing.request, request))
+				throw new IdempotencyKeyReusedException(String.format(
+						"Idempotency key: [%s] was already used for another request", key));
+			try {
+				return existing.outcome.join();
+			}
+			catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+			}
+		}
+		
+		try {
+			final V outcome = call.get();
+			entry.outcome.complete(outcome);
+			return outcome;
+		}
+		catch (RuntimeException e) {
+			synchronized (this.entries) {
+				this.entries.remove(key, entry);
+			}
+			entry.outcome.completeExceptionally(e);
+			throw e;
+		}
+	}
+	
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+	
+	private void evict(final long now) {
+		final Iterator<Entry<V>> eldest = this.entries.values().iterator();
+		while (eldest.hasNext()) {
+			final Entry<V> entry = eldest.next();
+			if (this.entries.size() <= this.maxKeys && now - entry.createdAt < this.ttl.toNanos())
+				break;
+			eldest.remove();
+		}
+	}
+	
+	private static final class Entry<V> {
+		
+		private final Object request;
+		private final long createdAt;
+		private final CompletableFuture<V> outcome = new CompletableFuture<>();
+		
+		private Entry(final Object request, final long createdAt) {
+			this.request = request;
+			this.createdAt = createdAt;
+		}
+		
+	}
+	
+}
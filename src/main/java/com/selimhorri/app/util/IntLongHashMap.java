@@ -0,0 +1,123 @@
+package com.selimhorri.app.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code int} to {@code long} with linear probing,
+ * avoiding the boxing and per-entry objects of a {@code Map<Integer, Long>}.
+ * Absent keys read as {@code 0}. Not thread-safe; {@link Integer#MIN_VALUE} is
+ * reserved as the empty-slot marker and cannot be used as a key.
+ */
+public final class IntLongHashMap {
+	
+	private static final int EMPTY = Integer.MIN_VALUE;
+	private static final float LOAD_FACTOR = 0.5f;
+	
+	private int[] keys;
+	private long[] values;
+	private int size;
+	private int mask;
+	private int resizeAt;
+	
+	public IntLongHashMap() {
+		this(16);
+	}
+	
+	public IntLongHashMap(final int expectedSize) {
+		this.allocate(Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+	}
+	
+	public long get(final int key) {
+		final int slot = this.find(checkKey(key));
+		return this.keys[slot] == EMPTY ? 0L : this.values[slot];
+	}
+	
+	public boolean containsKey(final int key) {
+		return this.keys[this.find(checkKey(key))] != EMPTY;
+	}
+	
+	public void put(final int key, final long value) {
+		final int slot = this.find(checkKey(key));
+		if (this.keys[slot] == EMPTY) {
+			this.insert(slot, key, value);
+			return;
+		}
+		this.values[slot] = value;
+	}
+	
+	/**
+	 * Adds {@code delta} to the value of {@code key}, starting from {@code 0}, and returns the new value.
+	 */
+	public long addTo(final int key, final long delta) {
+		final int slot = this.find(checkKey(key));
+		if (this.keys[slot] == EMPTY) {
+			this.insert(slot, key, delta);
+			return delta;
+		}
+		return this.values[slot] += delta;
+	}
+	
+	public int size() {
+		return this.size;
+	}
+	
+	public void forEach(final IntLongConsumer consumer) {
+		for (int i = 0; i < this.keys.length; i++)
+			if (this.keys[i] != EMPTY)
+				consumer.accept(this.keys[i], this.values[i]);
+	}
+	
+	private void insert(final int slot, final int key, final long value) {
+		this.keys[slot] = key;
+		this.values[slot] = value;
+		if (++this.size >= this.resizeAt)
+			this.rehash();
+	}
+	
+	private int find(final int key) {
+		int slot = mix(key) & this.mask;
+		while (this.keys[slot] != EMPTY && this.keys[slot] != key)
+			slot = (slot + 1) & this.mask;
+		return slot;
+	}
+	
+	private void rehash() {
+		final int[] oldKeys = this.keys;
+		final long[] oldValues = this.values;
+		this.allocate(oldKeys.length << 1);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				final int slot = this.find(oldKeys[i]);
+				this.keys[slot] = oldKeys[i];
+				this.values[slot] = oldValues[i];
+			}
+		}
+	}
+	
+	private void allocate(final int capacity) {
+		this.keys = new int[capacity];
+		Arrays.fill(this.keys, EMPTY);
+		this.values = new long[capacity];
+		this.mask = capacity - 1;
+		this.resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+	
+	private static int mix(final int key) {
+		final int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	private static int checkKey(final int key) {
+		if (key == EMPTY)
+			throw new IllegalArgumentException("Key " + key + " is reserved");
+		return key;
+	}
+	
+	@FunctionalInterface
+	public interface IntLongConsumer {
+		
+		void accept(final int key, final long value);
+		
+	}
+	
+}
@@ -0,0 +1,3 @@
+-- Covers "favourites of user X, newest first" without touching the table rows
+CREATE INDEX idx_favourites_user_like_date ON favourites (user_id, like_date, product_id);
+
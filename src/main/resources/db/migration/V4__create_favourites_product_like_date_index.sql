@@ -0,0 +1,3 @@
+-- Reverse lookups: who favourited product X, and how many did
+CREATE INDEX idx_favourites_product_like_date ON favourites (product_id, like_date, user_id);
+
@@ -0,0 +1,8 @@
+-- Likes past the archive horizon, moved out of favourites by the archival job.
+-- Key columns only: the audit columns are not kept
+CREATE TABLE favourites_archive (
+	user_id INT NOT NULL,
+	product_id INT NOT NULL,
+	like_date TIMESTAMP NOT NULL,
+	PRIMARY KEY (user_id, product_id, like_date)
+);
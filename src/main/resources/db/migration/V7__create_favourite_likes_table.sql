@@ -0,0 +1,9 @@
+
+-- One row per (user, product) pair liked through the like endpoint. The primary key makes
+-- a like a single insert-if-absent: of concurrent likes of one pair, exactly one inserts
+CREATE TABLE favourite_likes (
+	user_id INT NOT NULL,
+	product_id INT NOT NULL,
+	created_at TIMESTAMP NOT NULL,
+	PRIMARY KEY (user_id, product_id)
+);
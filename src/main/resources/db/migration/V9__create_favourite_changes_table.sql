@@ -0,0 +1,13 @@
+-- Append-only log of the (user, product) pairs whose favourites a write changed. The latest
+-- change_id of a scope is its listing version: one index probe, however many favourites the
+-- scope holds
+CREATE TABLE favourite_changes (
+	change_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+	user_id INT NOT NULL,
+	product_id INT NOT NULL,
+	changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_favourite_changes_user ON favourite_changes (user_id, change_id);
+
+CREATE INDEX idx_favourite_changes_product ON favourite_changes (product_id, change_id);
@@ -0,0 +1,260 @@
+package com.selimhorri.app.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CoalescingLookupClient Unit Tests")
+class CoalescingLookupClientTest {
+	
+	private static final String BATCH_URL = AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/batch";
+	
+	@Mock
+	private RestTemplate restTemplate;
+	
+	private ExecutorService executor;
+	private SimpleMeterRegistry meterRegistry;
+	private EnrichmentProperties.Downstream downstream;
+	private CircuitBreaker circuitBreaker;
+	private TimeLimiter timeLimiter;
+	
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		meterRegistry = new SimpleMeterRegistry();
+		downstream = new EnrichmentProperties.Downstream();
+		circuitBreaker = CircuitBreaker.ofDefaults("user");
+		timeLimiter = TimeLimiter.ofDefaults("user");
+	}
+	
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Should share one in-flight call between concurrent lookups of the same id")
+	void testFetch_CoalescesConcurrentLookups() throws Exception {
+		// Given
+		final CountDownLatch release = new CountDownLatch(1);
+		when(restTemplate.getForObject(anyString(), eq(UserDto.class)))
+				.thenAnswer(inv -> {
+					release.await(5, TimeUnit.SECONDS);
+					return UserDto.builder().userId(1).build();
+				});
+		final CoalescingLookupClient<UserDto> client = client(4);
+		
+		// When
+		final CompletableFuture<UserDto> first = client.fetch(1);
+		final CompletableFuture<UserDto> second = client.fetch(1);
+		final CompletableFuture<UserDto> third = client.fetch(1);
+		release.countDown();
+		
+		// Then
+		assertSame(first, second);
+		assertSame(first, third);
+		assertEquals(1, first.get(5, TimeUnit.SECONDS).getUserId());
+		verify(restTemplate, times(1)).getForObject(anyString(), eq(UserDto.class));
+		assertEquals(2.0 / 3.0, client.coalescingRatio(), 1e-9);
+		assertEquals(2.0, meterRegistry.get("favourite.enrichment.lookups").tag("outcome", "coalesced").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should group ids arriving within the window into one batch request")
+	@SuppressWarnings("unchecked")
+	void testFetchAll_Batches() throws Exception {
+		// Given
+		downstream.setBatchUrl(BATCH_URL);
+		downstream.setBatchWindow(Duration.ofMillis(20));
+		when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), any(ParameterizedTypeReference.class)))
+				.thenReturn(ResponseEntity.ok(new DtoCollectionResponse<>(List.of(
+						UserDto.builder().userId(1).build(),
+						UserDto.builder().userId(2).build()))));
+		final CoalescingLookupClient<UserDto> client = client(4);
+		
+		// When
+		final Map<Integer, CompletableFuture<UserDto>> futures = client.fetchAll(List.of(1, 2, 3));
+		
+		// Then
+		assertEquals(1, futures.get(1).get(5, TimeUnit.SECONDS).getUserId());
+		assertEquals(2, futures.get(2).get(5, TimeUnit.SECONDS).getUserId());
+		assertNull(futures.get(3).get(5, TimeUnit.SECONDS));
+		verify(restTemplate, times(1)).exchange(eq(BATCH_URL + "?ids=1,2,3"), eq(HttpMethod.GET), any(),
+				any(ParameterizedTypeReference.class));
+		verify(restTemplate, never()).getForObject(anyString(), eq(UserDto.class));
+		client.close();
+	}
+	
+	@Test
+	@DisplayName("Should fall back to single-key calls when the batch endpoint is missing")
+	@SuppressWarnings("unchecked")
+	void testFetchAll_BatchUnavailable() throws Exception {
+		// Given
+		downstream.setBatchUrl(BATCH_URL);
+		downstream.setBatchWindow(Duration.ofMillis(20));
+		when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), any(ParameterizedTypeReference.class)))
+				.thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+		when(restTemplate.getForObject(anyString(), eq(UserDto.class)))
+				.thenAnswer(inv -> {
+					final String url = inv.getArgument(0);
+					return UserDto.builder().userId(Integer.valueOf(url.substring(url.lastIndexOf('/') + 1))).build();
+				});
+		final CoalescingLookupClient<UserDto> client = client(4);
+		
+		// When
+		final Map<Integer, CompletableFuture<UserDto>> futures = client.fetchAll(List.of(1, 2));
+		
+		// Then
+		assertEquals(1, futures.get(1).get(5, TimeUnit.SECONDS).getUserId());
+		assertEquals(2, futures.get(2).get(5, TimeUnit.SECONDS).getUserId());
+		verify(restTemplate, times(2)).getForObject(anyString(), eq(UserDto.class));
+		client.close();
+	}
+	
+	@Test
+	@DisplayName("Should complete a single-key lookup of an unknown id with null")
+	void testFetch_NotFound() throws Exception {
+		// Given
+		when(restTemplate.getForObject(anyString(), eq(UserDto.class)))
+				.thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+		final CoalescingLookupClient<UserDto> client = client(4);
+		
+		// When
+		final CompletableFuture<UserDto> future = client.fetch(1);
+		
+		// Then
+		assertNull(future.get(5, TimeUnit.SECONDS));
+		assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+	}
+	
+	@Test
+	@DisplayName("Should fail lookups at once while the circuit breaker is open")
+	void testFetch_CircuitOpen() {
+		// Given
+		final CoalescingLookupClient<UserDto> client = client(4);
+		circuitBreaker.transitionToOpenState();
+		
+		// When
+		final CompletableFuture<UserDto> future = client.fetch(1);
+		
+		// Then
+		final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof CallNotPermittedException);
+		verify(restTemplate, never()).getForObject(anyString(), eq(UserDto.class));
+		assertEquals(1L, circuitBreaker.getMetrics().getNumberOfNotPermittedCalls());
+	}
+	
+	@Test
+	@DisplayName("Should fail a slow lookup after the time limit and count it against the breaker")
+	void testFetch_TimeLimited() throws Exception {
+		// Given
+		timeLimiter = TimeLimiter.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(100)).build());
+		final CountDownLatch release = new CountDownLatch(1);
+		when(restTemplate.getForObject(anyString(), eq(UserDto.class)))
+				.thenAnswer(inv -> {
+					release.await(5, TimeUnit.SECONDS);
+					return UserDto.builder().userId(1).build();
+				});
+		final CoalescingLookupClient<UserDto> client = client(4);
+		
+		// When
+		final CompletableFuture<UserDto> future = client.fetch(1);
+		
+		// Then
+		final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof TimeoutException);
+		assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+		release.countDown();
+		client.close();
+	}
+	
+	@Test
+	@DisplayName("Should race a slow call with a hedge and take the first answer")
+	void testFetch_HedgeWins() throws Exception {
+		// Given
+		downstream.getHedging().setEnabled(true);
+		downstream.getHedging().setInitialDelay(Duration.ofMillis(50));
+		downstream.getHedging().setBudget(1.0);
+		final CountDownLatch slowReplica = new CountDownLatch(1);
+		final AtomicInteger calls = new AtomicInteger();
+		when(restTemplate.getForObject(anyString(), eq(UserDto.class)))
+				.thenAnswer(inv -> {
+					if (calls.incrementAndGet() == 1)
+						slowReplica.await(5, TimeUnit.SECONDS);
+					return UserDto.builder().userId(1).firstName(calls.get() == 1 ? "primary" : "hedge").build();
+				});
+		final CoalescingLookupClient<UserDto> client = client(4);
+		
+		// When
+		final UserDto user = client.fetch(1).get(2, TimeUnit.SECONDS);
+		
+		// Then
+		assertEquals("hedge", user.getFirstName());
+		assertEquals(1.0, meterRegistry.get("favourite.enrichment.hedges").tag("outcome", "fired").counter().count());
+		// The win is counted by the hedging thread right after it completes the lookup
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+		while (meterRegistry.get("favourite.enrichment.hedges").tag("outcome", "won").counter().count() < 1.0
+				&& System.nanoTime() < deadline)
+			Thread.onSpinWait();
+		assertEquals(1.0, meterRegistry.get("favourite.enrichment.hedges").tag("outcome", "won").counter().count());
+		slowReplica.countDown();
+		client.close();
+	}
+	
+	private CoalescingLookupClient<UserDto> client(final int maxInFlight) {
+		return new CoalescingLookupClient<>("user", AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL,
+				UserDto.class, UserDto::getUserId, downstream, circuitBreaker,
+				Bulkhead.of("user", BulkheadConfig.custom().maxConcurrentCalls(maxInFlight).build()), timeLimiter,
+				restTemplate, executor, meterRegistry);
+	}
+	
+}
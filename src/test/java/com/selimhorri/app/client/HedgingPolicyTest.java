@@ -0,0 +1,97 @@
+package com.selimhorri.app.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("HedgingPolicy Unit Tests")
+class HedgingPolicyTest {
+	
+	private MockClock clock;
+	private SimpleMeterRegistry meterRegistry;
+	private EnrichmentProperties.Hedging settings;
+	
+	@BeforeEach
+	void setUp() {
+		clock = new MockClock();
+		meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+		settings = new EnrichmentProperties.Hedging();
+		settings.setEnabled(true);
+	}
+	
+	@Test
+	@DisplayName("Should hedge after the latency percentile once enough calls were timed")
+	void testDelay_TracksPercentile() {
+		// Given
+		settings.setInitialDelay(Duration.ofMillis(100));
+		settings.setMinSamples(100);
+		final HedgingPolicy policy = new HedgingPolicy("product", settings, meterRegistry);
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(100), policy.delayNanos());
+		
+		// When
+		final HedgingPolicy warmed = new HedgingPolicy("user", settings, meterRegistry);
+		for (int i = 1; i <= 200; i++)
+			warmed.recordLatency(TimeUnit.MILLISECONDS.toNanos(i % 100 < 95 ? 10 : 400));
+		
+		// Then
+		final long delayMillis = TimeUnit.NANOSECONDS.toMillis(warmed.delayNanos());
+		assertTrue(delayMillis >= 9 && delayMillis <= 400, "p95 delay expected, was " + delayMillis + "ms");
+	}
+	
+	@Test
+	@DisplayName("Should fall back to the initial delay once the timed calls leave the window")
+	void testDelay_CountsRecentCalls() {
+		// Given
+		settings.setInitialDelay(Duration.ofMillis(100));
+		settings.setMinSamples(100);
+		final HedgingPolicy policy = new HedgingPolicy("product", settings, meterRegistry);
+		for (int i = 0; i < 200; i++)
+			policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+		assertEquals(200L, policy.windowCount());
+		
+		// When
+		clock.add(Duration.ofSeconds(70));
+		for (int i = 0; i < 10; i++)
+			policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+		
+		// Then
+		assertEquals(10L, policy.windowCount());
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(100), policy.delayNanos());
+	}
+	
+	@Test
+	@DisplayName("Should spend at most the hedging budget")
+	void testTryHedge_Budget() {
+		// Given
+		settings.setBudget(0.25);
+		settings.setMaxBurst(1);
+		final HedgingPolicy policy = new HedgingPolicy("product", settings, meterRegistry);
+		
+		// When & Then
+		assertFalse(policy.tryHedge(), "no budget before any call");
+		for (int i = 0; i < 4; i++)
+			policy.onCall();
+		assertTrue(policy.tryHedge());
+		assertFalse(policy.tryHedge());
+		for (int i = 0; i < 40; i++)
+			policy.onCall();
+		assertTrue(policy.tryHedge());
+		assertFalse(policy.tryHedge(), "saved budget is capped at the burst size");
+		assertEquals(2.0, meterRegistry.get("favourite.enrichment.hedges").tag("outcome", "fired").counter().count());
+		assertEquals(3.0, meterRegistry.get("favourite.enrichment.hedges").tag("outcome", "denied").counter().count());
+	}
+	
+}
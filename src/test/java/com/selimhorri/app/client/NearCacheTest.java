@@ -0,0 +1,143 @@
+package com.selimhorri.app.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+import com.selimhorri.app.dto.UserDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("NearCache Unit Tests")
+class NearCacheTest {
+	
+	private EnrichmentProperties.CacheSettings settings;
+	private SimpleMeterRegistry meterRegistry;
+	private AtomicInteger loads;
+	private volatile boolean failing;
+	
+	@BeforeEach
+	void setUp() {
+		settings = new EnrichmentProperties.CacheSettings();
+		meterRegistry = new SimpleMeterRegistry();
+		loads = new AtomicInteger();
+		failing = false;
+	}
+	
+	@Test
+	@DisplayName("Should serve repeated lookups from the cache")
+	void testGet_Hit() throws Exception {
+		// Given
+		final NearCache<UserDto> cache = cache(this::load);
+		
+		// When
+		cache.get(1).get();
+		final UserDto second = cache.get(1).get();
+		
+		// Then
+		assertEquals(1, second.getUserId());
+		assertEquals(1, loads.get());
+		assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+		assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").counter().count());
+	}
+	
+	@Test
+	@DisplayName("Should serve a stale entry while refreshing it in the background")
+	void testGet_StaleWhileRevalidate() throws Exception {
+		// Given
+		settings.setTtl(Duration.ofMillis(10));
+		final NearCache<UserDto> cache = cache(this::load);
+		cache.get(1).get();
+		TimeUnit.MILLISECONDS.sleep(20);
+		
+		// When
+		final UserDto stale = cache.get(1).get();
+		
+		// Then
+		assertEquals("v1", stale.getFirstName());
+		assertEquals(2, loads.get());
+		assertEquals("v2", cache.get(1).get().getFirstName());
+	}
+	
+	@Test
+	@DisplayName("Should serve a stale entry when the downstream service fails")
+	void testGet_StaleIfError() throws Exception {
+		// Given
+		settings.setTtl(Duration.ZERO);
+		final NearCache<UserDto> cache = cache(this::load);
+		cache.get(1).get();
+		failing = true;
+		
+		// When
+		final UserDto stale = cache.get(1).get();
+		
+		// Then
+		assertEquals("v1", stale.getFirstName());
+		assertEquals(1, cache.size());
+	}
+	
+	@Test
+	@DisplayName("Should fail when the downstream service fails and nothing is cached")
+	void testGet_FailureWithoutEntry() {
+		// Given
+		failing = true;
+		final NearCache<UserDto> cache = cache(this::load);
+		
+		// When & Then
+		assertThrows(ExecutionException.class, () -> cache.get(1).get());
+	}
+	
+	@Test
+	@DisplayName("Should evict least recently used entries beyond the entry and weight bounds")
+	void testPut_Bounded() throws Exception {
+		// Given
+		settings.setMaxEntries(2);
+		final NearCache<UserDto> cache = cache(this::load);
+		
+		// When
+		cache.get(1).get();
+		cache.get(2).get();
+		cache.get(1).get();
+		cache.get(3).get();
+		
+		// Then
+		assertEquals(2, cache.size());
+		assertEquals(1.0, meterRegistry.get("cache.evictions").counter().count());
+		cache.get(1).get();
+		assertEquals(3, loads.get());
+		
+		// And the weight bound applies too
+		settings.setMaxWeight(DataSize.ofBytes(1));
+		cache.get(4).get();
+		assertTrue(cache.weight() <= 1);
+	}
+	
+	private NearCache<UserDto> cache(final Function<Integer, CompletableFuture<UserDto>> loader) {
+		return new NearCache<>("user", loader,
+				u -> NearCache.estimateWeight(u.getFirstName()), settings, meterRegistry);
+	}
+	
+	private CompletableFuture<UserDto> load(final Integer id) {
+		if (failing)
+			return CompletableFuture.failedFuture(new ResourceAccessException("connection refused"));
+		return CompletableFuture.completedFuture(UserDto.builder()
+				.userId(id)
+				.firstName("v" + loads.incrementAndGet())
+				.build());
+	}
+	
+}
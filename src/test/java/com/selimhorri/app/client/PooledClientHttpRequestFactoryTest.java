@@ -0,0 +1,108 @@
+package com.selimhorri.app.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.config.client.HttpClientProperties;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.stub.StubDownstreamServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PooledClientHttpRequestFactory Unit Tests")
+class PooledClientHttpRequestFactoryTest {
+
+	@Mock
+	private DiscoveryClient discoveryClient;
+
+	private StubDownstreamServer stub;
+	private SimpleMeterRegistry meterRegistry;
+	private HttpClientProperties properties;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		stub = StubDownstreamServer.start();
+		meterRegistry = new SimpleMeterRegistry();
+		properties = new HttpClientProperties();
+		final HttpClientProperties.Route route = new HttpClientProperties.Route();
+		route.setMaxPerRoute(3);
+		properties.getRoutes().put("USER-SERVICE", route);
+		lenient().when(discoveryClient.getInstances(anyString())).thenReturn(List.of());
+	}
+
+	@AfterEach
+	void tearDown() {
+		stub.close();
+	}
+
+	@Test
+	@DisplayName("Should reuse pooled connections to a downstream service")
+	void testExecute_ReusesConnections() throws Exception {
+		// Given
+		when(discoveryClient.getInstances("USER-SERVICE")).thenReturn(List.of(
+				new DefaultServiceInstance("user-1", "USER-SERVICE", "localhost", stub.port(), false)));
+		final PooledClientHttpRequestFactory factory = new PooledClientHttpRequestFactory(
+				properties, discoveryClient, meterRegistry);
+		final RestTemplate restTemplate = stub.restTemplate(factory);
+
+		// When
+		for (int i = 1; i <= 5; i++) {
+			final UserDto user = restTemplate.getForObject(
+					AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/" + i, UserDto.class);
+			assertNotNull(user);
+		}
+
+		// Then
+		assertEquals(5, stub.requests());
+		assertEquals(0, factory.connections("USER-SERVICE", PoolStats::getLeased));
+		assertEquals(1, factory.connections("USER-SERVICE", PoolStats::getAvailable),
+				"sequential calls should share one kept-alive connection");
+		assertEquals(3, factory.connections("USER-SERVICE", PoolStats::getMax));
+		assertEquals(1.0, meterRegistry.get("httpcomponents.httpclient.pool.route.connections")
+				.tag("service", "USER-SERVICE")
+				.tag("state", "available")
+				.gauge()
+				.value());
+		factory.destroy();
+	}
+
+	@Test
+	@DisplayName("Should apply default limits to instances of unconfigured services")
+	void testExecute_UnknownService() throws Exception {
+		// Given
+		properties.setDefaultMaxPerRoute(7);
+		final PooledClientHttpRequestFactory factory = new PooledClientHttpRequestFactory(
+				properties, discoveryClient, meterRegistry);
+		final RestTemplate restTemplate = stub.restTemplate(factory);
+
+		// When
+		restTemplate.getForObject(AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL + "/1", String.class);
+
+		// Then
+		assertEquals(0, factory.connections("USER-SERVICE", PoolStats::getAvailable));
+		assertTrue(meterRegistry.get("httpcomponents.httpclient.pool.total.max").gauge().value() > 0);
+		assertEquals(7.0, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").gauge().value());
+		factory.destroy();
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.selimhorri.app.config.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.domain.Favourite;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
+
+@DisplayName("MapperConfig Unit Tests")
+class MapperConfigTest {
+	
+	private MapperConfig mapperConfig;
+	private FavouriteDto testFavouriteDto;
+	
+	@BeforeEach
+	void setUp() {
+		mapperConfig = new MapperConfig();
+		testFavouriteDto = FavouriteMappingHelper.map(Favourite.builder()
+				.userId(1)
+				.productId(100)
+				.likeDate(LocalDateTime.of(2024, 1, 15, 10, 30, 0))
+				.build());
+	}
+	
+	@Test
+	@DisplayName("Should write compact JSON unless indentation is enabled")
+	void testObjectMapper_CompactByDefault() throws Exception {
+		// When
+		String compact = mapperConfig.objectMapperBean(false).writeValueAsString(testFavouriteDto);
+		String indented = mapperConfig.objectMapperBean(true).writeValueAsString(testFavouriteDto);
+		
+		// Then
+		assertFalse(compact.contains("\n"));
+		assertTrue(indented.contains("\n"));
+	}
+	
+	@Test
+	@DisplayName("Should leave out stub user and product DTOs but keep enriched ones")
+	void testObjectMapper_OmitsStubDtos() throws Exception {
+		// Given
+		ObjectMapper objectMapper = mapperConfig.objectMapperBean(false);
+		
+		// When
+		String stub = objectMapper.writeValueAsString(testFavouriteDto);
+		testFavouriteDto.setUserDto(UserDto.builder()
+				.userId(1)
+				.firstName("John")
+				.build());
+		String enriched = objectMapper.writeValueAsString(testFavouriteDto);
+		
+		// Then
+		assertFalse(stub.contains("\"user\""));
+		assertFalse(stub.contains("\"product\""));
+		assertTrue(enriched.contains("\"user\":{\"userId\":1,\"firstName\":\"John\"}"));
+		assertFalse(enriched.contains("\"product\""));
+	}
+	
+	@Test
+	@DisplayName("Should round-trip favourites through Smile and CBOR")
+	void testBinaryFormats_RoundTrip() throws Exception {
+		for (ObjectMapper objectMapper : new ObjectMapper[] {
+				mapperConfig.smileHttpMessageConverterBean().getObjectMapper(),
+				mapperConfig.cborHttpMessageConverterBean().getObjectMapper() }) {
+			// When
+			byte[] bytes = objectMapper.writeValueAsBytes(testFavouriteDto);
+			FavouriteDto result = objectMapper.readValue(bytes, FavouriteDto.class);
+			
+			// Then
+			assertEquals(testFavouriteDto.getUserId(), result.getUserId());
+			assertEquals(testFavouriteDto.getProductId(), result.getProductId());
+			assertEquals(testFavouriteDto.getLikeDate(), result.getLikeDate());
+		}
+	}
+	
+}
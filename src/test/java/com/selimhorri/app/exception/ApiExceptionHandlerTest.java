@@ -9,11 +9,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import com.selimhorri.app.exception.payload.ExceptionMsg;
 import com.selimhorri.app.exception.wrapper.FavouriteNotFoundException;
+import com.selimhorri.app.exception.wrapper.WriteBacklogFullException;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("ApiExceptionHandler Unit Tests")
@@ -98,5 +100,19 @@ class ApiExceptionHandlerTest {
 		assertEquals("#### Error message! ####", message);
 	}
 	
+	@Test
+	@DisplayName("Should answer a full write backlog with 503 and Retry-After")
+	void testHandleWriteBacklogFullException() {
+		// Given
+		WriteBacklogFullException exception = new WriteBacklogFullException("Write journal is full");
+		
+		// When
+		ResponseEntity<ExceptionMsg> response = apiExceptionHandler.handleWriteBacklogFullException(exception);
+		
+		// Then
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertEquals("#### Write journal is full! ####", response.getBody().getMsg());
+	}
+	
 }
-
@@ -0,0 +1,40 @@
+package com.selimhorri.app.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+
+@DisplayName("FavouriteCursorHelper Unit Tests")
+class FavouriteCursorHelperTest {
+	
+	@Test
+	@DisplayName("Should round-trip a composite key through an opaque cursor")
+	void testEncodeDecode_RoundTrip() {
+		// Given
+		FavouriteId favouriteId = new FavouriteId(7, 700, LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123456000));
+		
+		// When
+		String cursor = FavouriteCursorHelper.encode(favouriteId);
+		FavouriteId decoded = FavouriteCursorHelper.decode(cursor);
+		
+		// Then
+		assertTrue(cursor.matches("[A-Za-z0-9_-]+"), "cursor must be URL safe: " + cursor);
+		assertEquals(favouriteId, decoded);
+	}
+	
+	@Test
+	@DisplayName("Should reject a malformed cursor")
+	void testDecode_Invalid() {
+		assertThrows(InvalidCursorException.class, () -> FavouriteCursorHelper.decode("not-a-cursor"));
+		assertThrows(InvalidCursorException.class, () -> FavouriteCursorHelper.decode("%%%"));
+	}
+	
+}
@@ -0,0 +1,51 @@
+package com.selimhorri.app.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.constant.AppConstant;
+
+@DisplayName("FavouriteIdCodec Unit Tests")
+class FavouriteIdCodecTest {
+	
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(AppConstant.LOCAL_DATE_TIME_FORMAT);
+	
+	@Test
+	@DisplayName("Should parse like dates exactly as the formatter does")
+	void testLikeDate_MatchesFormatter() {
+		for (LocalDateTime likeDate : new LocalDateTime[] {
+				LocalDateTime.of(2025, 6, 10, 13, 12, 22, 606_444_000),
+				LocalDateTime.of(2024, 2, 29, 0, 0, 0),
+				LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999_999_000) }) {
+			String text = FORMATTER.format(likeDate);
+			assertEquals(LocalDateTime.parse(text, FORMATTER), FavouriteIdCodec.parseLikeDate(text));
+		}
+	}
+	
+	@Test
+	@DisplayName("Should accept a percent-encoded colon")
+	void testParseLikeDate_EncodedColon() {
+		assertEquals(LocalDateTime.of(2025, 6, 10, 13, 12, 22, 606_444_000),
+				FavouriteIdCodec.parseLikeDate("10-06-2025__13%3A12%3a22%3A606444"));
+	}
+	
+	@Test
+	@DisplayName("Should return null instead of throwing on invalid like dates")
+	void testParseLikeDate_Invalid() {
+		for (String text : new String[] {
+				null, "", "invalid-date", "10-06-2025", "10-06-2025__13:12:22:60644",
+				"10-06-2025__13:12:22:6064445", "10/06/2025__13:12:22:606444", "10-13-2025__13:12:22:606444",
+				"30-02-2024__13:12:22:606444", "29-02-2023__13:12:22:606444", "10-06-2025__24:00:00:000000",
+				"10-06-0000__13:12:22:606444", "1a-06-2025__13:12:22:606444", "10-06-2025__13%3B12:22:606444",
+				"10-06-2025__13%3A12%3A22%3A60644", "10-06-2025__13:12:22:606444 " }) {
+			assertNull(FavouriteIdCodec.parseLikeDate(text), text);
+		}
+	}
+	
+}
@@ -0,0 +1,102 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs the listings through the embedded Tomcat, which is where responses get compressed;
+ * MockMvc never reaches it.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Response Compression Integration Tests")
+class FavouriteCompressionIntegrationTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockBean
+	private RestTemplate restTemplate;
+
+	private TestRestTemplate testRestTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// Unlike the pooled client, a plain connection hands back the body as sent
+		testRestTemplate = new TestRestTemplate(new RestTemplateBuilder()
+				.requestFactory(SimpleClientHttpRequestFactory.class)
+				.rootUri("http://localhost:" + port + "/favourite-service"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM favourites");
+	}
+
+	@Test
+	@DisplayName("Should gzip a large listing while still tagging it")
+	void testGetFavouritesByUser_Gzip() throws IOException {
+		// Given
+		final LocalDateTime likeDate = LocalDateTime.of(2024, 1, 15, 10, 30);
+		for (int productId = 1; productId <= 100; productId++)
+			jdbcTemplate.update("INSERT INTO favourites (user_id, product_id, like_date, created_at) VALUES (?, ?, ?, ?)",
+					1, productId, Timestamp.valueOf(likeDate.plusMinutes(productId)), Timestamp.valueOf(LocalDateTime.now()));
+		final HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+		// When
+		final ResponseEntity<byte[]> response = testRestTemplate.exchange("/api/favourites/users/{userId}?limit={limit}",
+				HttpMethod.GET, new HttpEntity<>(headers), byte[].class, 1, 100);
+
+		// Then
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertNotNull(response.getHeaders().getETag());
+		final JsonNode page = objectMapper.readTree(gunzip(response.getBody()));
+		assertEquals(100, page.get("collection").size());
+	}
+
+	private static String gunzip(final byte[] body) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.dto.FavouriteStateDto;
+import com.selimhorri.app.service.FavouriteService;
+
+/**
+ * Likes committed by concurrent transactions, so unlike the other integration tests
+ * nothing here runs inside a rolled-back test transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Concurrent Like Integration Tests")
+class FavouriteLikeConcurrencyIntegrationTest {
+
+	private static final int USER_ID = 90;
+	private static final int PRODUCT_ID = 9000;
+	private static final int LIKES = 8;
+
+	@Autowired
+	private FavouriteService favouriteService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockBean
+	private RestTemplate restTemplate;
+
+	@AfterEach
+	void tearDown() {
+		favouriteService.unlike(USER_ID, PRODUCT_ID);
+	}
+
+	@Test
+	@DisplayName("Should keep one favourite and one count when a pair is liked concurrently")
+	void testLike_Concurrent() throws Exception {
+		// Given
+		final ExecutorService executor = Executors.newFixedThreadPool(LIKES);
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Future<FavouriteStateDto>> likes = new ArrayList<>();
+		for (int i = 0; i < LIKES; i++)
+			likes.add(executor.submit(() -> {
+				start.await();
+				return favouriteService.like(USER_ID, PRODUCT_ID);
+			}));
+
+		// When
+		start.countDown();
+		int changed = 0;
+		try {
+			for (Future<FavouriteStateDto> like : likes)
+				if (like.get().isChanged())
+					changed++;
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		// Then
+		assertEquals(1, changed);
+		assertEquals(1, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM favourites WHERE user_id = ? AND product_id = ?", Integer.class, USER_ID, PRODUCT_ID));
+		assertEquals(1L, favouriteService.countByProductId(PRODUCT_ID));
+	}
+
+}
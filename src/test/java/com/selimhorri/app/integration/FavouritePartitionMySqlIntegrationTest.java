@@ -0,0 +1,131 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import com.selimhorri.app.repository.FavouritePartitionRepository;
+import com.selimhorri.app.service.FavouriteArchiveService;
+
+/**
+ * Runs the migrations and the partition upkeep against a real MySQL, the only database
+ * that partitions favourites. Skipped where Docker is not available.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=none",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL8Dialect",
+		"spring.flyway.baseline-on-migrate=true",
+		"spring.flyway.baseline-version=1",
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("MySQL Partitioning Integration Tests")
+class FavouritePartitionMySqlIntegrationTest {
+
+	private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+	@Container
+	private static final MySQLContainer<?> MYSQL = new MySQLContainer<>(DockerImageName.parse("mysql:8.0.27"))
+			.withInitScript("db/mysql-baseline.sql");
+
+	@DynamicPropertySource
+	static void mysqlProperties(final DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+		registry.add("spring.datasource.username", MYSQL::getUsername);
+		registry.add("spring.datasource.password", MYSQL::getPassword);
+	}
+
+	@Autowired
+	private FavouritePartitionRepository favouritePartitionRepository;
+
+	@Autowired
+	private FavouriteArchiveService favouriteArchiveService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockBean
+	private RestTemplate restTemplate;
+
+	@Test
+	@DisplayName("Should migrate, add partitions ahead, archive old likes and drop only empty partitions")
+	void testPartitions_MigrateArchiveAndDrop() {
+		// Migrated and brought up to date on startup
+		final YearMonth current = YearMonth.now();
+		assertTrue(favouritePartitionRepository.isPartitioned());
+		List<String> partitions = partitions();
+		assertEquals("p_past", partitions.get(0));
+		assertEquals("p_future", partitions.get(partitions.size() - 1));
+		assertTrue(partitions.contains(current.format(MONTH_NAME)));
+		assertTrue(partitions.contains(current.plusMonths(3).format(MONTH_NAME)));
+
+		// Given
+		final LocalDateTime recent = current.atDay(15).atTime(12, 0, 0, 123456000);
+		final LocalDateTime old = recent.minusYears(5);
+		jdbcTemplate.update("DELETE FROM favourites");
+		insert(1, 100, recent);
+		insert(2, 100, old);
+
+		// When
+		final int archived = favouriteArchiveService.archive();
+
+		// Then
+		assertEquals(1, archived);
+		assertEquals(old, jdbcTemplate.queryForObject(
+				"SELECT like_date FROM favourites_archive WHERE user_id = 2", LocalDateTime.class));
+		assertEquals(recent, jdbcTemplate.queryForObject("SELECT like_date FROM favourites", LocalDateTime.class));
+		assertFalse(partitions().contains("p_past"));
+
+		// Given: the next months are empty, the current one is not
+		partitions = partitions();
+		final List<String> holding = partitions.stream()
+				.filter(name -> jdbcTemplate.queryForObject(
+						String.format("SELECT COUNT(*) FROM favourites PARTITION (%s)", name), Integer.class) > 0)
+				.collect(Collectors.toList());
+
+		// When
+		final int dropped = favouritePartitionRepository.dropEmptyPartitionsBefore(current.plusMonths(3));
+
+		// Then
+		final List<String> remaining = partitions();
+		assertEquals(2, dropped);
+		assertEquals(partitions.size() - dropped, remaining.size());
+		assertTrue(remaining.contains(current.format(MONTH_NAME)));
+		assertTrue(remaining.containsAll(holding));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favourites", Integer.class));
+	}
+
+	private void insert(final int userId, final int productId, final LocalDateTime likeDate) {
+		jdbcTemplate.update("INSERT INTO favourites (user_id, product_id, like_date, created_at) VALUES (?, ?, ?, ?)",
+				userId, productId, Timestamp.valueOf(likeDate), Timestamp.valueOf(LocalDateTime.now()));
+	}
+
+	private List<String> partitions() {
+		return jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+				+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'favourites' AND PARTITION_NAME IS NOT NULL "
+				+ "ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+	}
+
+}
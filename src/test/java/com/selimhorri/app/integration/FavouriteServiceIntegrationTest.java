@@ -3,15 +3,21 @@ package com.selimhorri.app.integration;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,9 +26,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
@@ -34,9 +44,13 @@ import com.selimhorri.app.dto.FavouriteDto;
 import com.selimhorri.app.dto.ProductDto;
 import com.selimhorri.app.dto.UserDto;
 import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.FavouriteArchiveService;
+import com.selimhorri.app.service.FavouriteCounterService;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -60,6 +74,15 @@ class FavouriteServiceIntegrationTest {
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private FavouriteCounterService favouriteCounterService;
+
+	@Autowired
+	private FavouriteArchiveService favouriteArchiveService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@MockBean
 	private RestTemplate restTemplate;
 
@@ -94,6 +117,15 @@ class FavouriteServiceIntegrationTest {
 				.thenReturn(mockProductDto);
 	}
 
+	/**
+	 * Performs a request served asynchronously and dispatches its result once ready.
+	 */
+	private ResultActions performAsync(final RequestBuilder requestBuilder) throws Exception {
+		return mockMvc.perform(asyncDispatch(mockMvc.perform(requestBuilder)
+				.andExpect(request().asyncStarted())
+				.andReturn()));
+	}
+
 	@Test
 	@DisplayName("Should create favourite successfully via REST API")
 	void testCreateFavourite_Success() throws Exception {
@@ -125,10 +157,10 @@ class FavouriteServiceIntegrationTest {
 		String likeDateStr = savedFavourite.getLikeDate().format(formatter);
 
 		// When & Then
-		mockMvc.perform(get("/api/favourites/{userId}/{productId}/{likeDate}",
+		performAsync(get("/api/favourites/{userId}/{productId}/{likeDate}",
 				savedFavourite.getUserId(),
 				savedFavourite.getProductId(),
-				likeDateStr))
+				likeDateStr).param("expand", "user,product"))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$.userId").value(savedFavourite.getUserId()))
 				.andExpect(jsonPath("$.productId").value(savedFavourite.getProductId()))
@@ -158,7 +190,7 @@ class FavouriteServiceIntegrationTest {
 		favouriteRepository.save(favourite2);
 
 		// When & Then
-		mockMvc.perform(get("/api/favourites"))
+		performAsync(get("/api/favourites"))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$.collection").isArray())
 				.andExpect(jsonPath("$.collection.length()").value(2));
@@ -209,6 +241,15 @@ class FavouriteServiceIntegrationTest {
 		assertTrue(favouriteRepository.findById(favouriteId).isEmpty());
 	}
 
+	@Test
+	@DisplayName("Should return 400 error when deleting a favourite that does not exist")
+	void testDeleteFavourite_NotFound() throws Exception {
+		// When & Then
+		mockMvc.perform(delete("/api/favourites/{userId}/{productId}/{likeDate}",
+				999, 999, testLikeDate.format(formatter)))
+				.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	@DisplayName("Should return 400 error when favourite not found")
 	void testGetFavouriteById_NotFound() throws Exception {
@@ -221,6 +262,21 @@ class FavouriteServiceIntegrationTest {
 				.andExpect(status().isBadRequest());
 	}
 
+	@Test
+	@DisplayName("Should return 400 error when a key segment is malformed")
+	void testGetFavouriteById_MalformedKey() throws Exception {
+		// When & Then
+		mockMvc.perform(get("/api/favourites/{userId}/{productId}/{likeDate}",
+				1, 100, "30-02-2024__10:30:00:000000"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/favourites/{userId}/{productId}/{likeDate}",
+				"abc", 100, testLikeDate.format(formatter)))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(delete("/api/favourites/{userId}/{productId}/{likeDate}",
+				1, 100, "not-a-date"))
+				.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	@DisplayName("Should persist favourite with correct composite key")
 	void testFavouriteCompositeKey() throws Exception {
@@ -261,7 +317,7 @@ class FavouriteServiceIntegrationTest {
 		createFavouriteInDatabase();
 
 		// When & Then
-		mockMvc.perform(get("/api/favourites"))
+		performAsync(get("/api/favourites").param("expand", "user,product"))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$.collection[0].user").exists())
 				.andExpect(jsonPath("$.collection[0].user.userId").exists())
@@ -269,6 +325,32 @@ class FavouriteServiceIntegrationTest {
 				.andExpect(jsonPath("$.collection[0].product.productId").exists());
 	}
 
+	@Test
+	@DisplayName("Should return key-only favourites unless expansions are requested")
+	void testGetFavourites_DefaultProjection() throws Exception {
+		// Given
+		createFavouriteInDatabase();
+
+		// When & Then
+		performAsync(get("/api/favourites"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].userId").value(1))
+				.andExpect(jsonPath("$.collection[0].user").doesNotExist())
+				.andExpect(jsonPath("$.collection[0].product").doesNotExist());
+		performAsync(get("/api/favourites").param("expand", "product"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].user").doesNotExist())
+				.andExpect(jsonPath("$.collection[0].product.productId").value(100));
+		verify(restTemplate, never()).getForObject(any(String.class), eq(UserDto.class));
+	}
+
+	@Test
+	@DisplayName("Should return 400 error for an unknown expansion")
+	void testGetFavourites_InvalidExpansion() throws Exception {
+		mockMvc.perform(get("/api/favourites/page").param("expand", "user,orders"))
+				.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	@DisplayName("Should handle multiple favourites for same user")
 	void testMultipleFavouritesForSameUser() throws Exception {
@@ -289,13 +371,441 @@ class FavouriteServiceIntegrationTest {
 		favouriteRepository.save(favourite2);
 
 		// When & Then
-		mockMvc.perform(get("/api/favourites"))
+		performAsync(get("/api/favourites"))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$.collection.length()").value(2))
 				.andExpect(jsonPath("$.collection[0].userId").value(1))
 				.andExpect(jsonPath("$.collection[1].userId").value(1));
 	}
 
+	@Test
+	@DisplayName("Should walk every favourite exactly once through keyset pages")
+	void testGetFavouritesPage_KeysetScroll() throws Exception {
+		// Given
+		for (int i = 0; i < 5; i++) {
+			favouriteRepository.save(Favourite.builder()
+					.userId(1 + i % 2)
+					.productId(100 + i)
+					.likeDate(testLikeDate.plusMinutes(i))
+					.build());
+		}
+
+		// When - first page
+		String response = mockMvc.perform(get("/api/favourites/page").param("size", "2").param("expand", "user"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(2))
+				.andExpect(jsonPath("$.hasNext").value(true))
+				.andExpect(jsonPath("$.collection[0].user").exists())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		String cursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+		// Then - following pages resume after the cursor
+		mockMvc.perform(get("/api/favourites/page").param("size", "2").param("cursor", cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(2))
+				.andExpect(jsonPath("$.hasNext").value(true));
+		response = mockMvc.perform(get("/api/favourites/page").param("size", "2").param("cursor", cursor))
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		cursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+		mockMvc.perform(get("/api/favourites/page").param("size", "2").param("cursor", cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(1))
+				.andExpect(jsonPath("$.hasNext").value(false))
+				.andExpect(jsonPath("$.nextCursor").doesNotExist());
+	}
+
+	@Test
+	@DisplayName("Should return 400 error for a malformed page cursor")
+	void testGetFavouritesPage_InvalidCursor() throws Exception {
+		mockMvc.perform(get("/api/favourites/page").param("cursor", "not-a-cursor"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("Should export every favourite as newline-delimited JSON")
+	void testExportFavourites_Ndjson() throws Exception {
+		// Given
+		for (int i = 0; i < 3; i++) {
+			favouriteRepository.save(Favourite.builder()
+					.userId(1)
+					.productId(100 + i)
+					.likeDate(testLikeDate)
+					.build());
+		}
+
+		// When
+		String response = mockMvc.perform(get("/api/favourites/export").param("expand", "user"))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+
+		// Then
+		String[] lines = response.split("\n");
+		assertEquals(3, lines.length);
+		assertTrue(response.endsWith("\n"));
+		for (int i = 0; i < lines.length; i++) {
+			FavouriteDto exported = objectMapper.readValue(lines[i], FavouriteDto.class);
+			assertEquals(100 + i, exported.getProductId());
+			assertNotNull(exported.getUserDto());
+		}
+	}
+
+	@Test
+	@DisplayName("Should export nothing, not a blank line, when there are no favourites")
+	void testExportFavourites_Empty() throws Exception {
+		// When & Then
+		mockMvc.perform(get("/api/favourites/export"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(""));
+	}
+
+	@Test
+	@DisplayName("Should list the favourites of one user newest first")
+	void testGetFavouritesByUser_NewestFirst() throws Exception {
+		// Given
+		for (int i = 0; i < 3; i++) {
+			favouriteRepository.save(Favourite.builder()
+					.userId(1)
+					.productId(100 + i)
+					.likeDate(testLikeDate.plusDays(i))
+					.build());
+		}
+		favouriteRepository.save(Favourite.builder()
+				.userId(2)
+				.productId(100)
+				.likeDate(testLikeDate)
+				.build());
+
+		// When
+		String response = mockMvc.perform(get("/api/favourites/users/{userId}", 1).param("limit", "2").param("expand", "user"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(2))
+				.andExpect(jsonPath("$.collection[0].productId").value(102))
+				.andExpect(jsonPath("$.collection[1].productId").value(101))
+				.andExpect(jsonPath("$.collection[0].user").exists())
+				.andExpect(jsonPath("$.hasNext").value(true))
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		String cursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+		// Then
+		mockMvc.perform(get("/api/favourites/users/{userId}", 1).param("limit", "2").param("cursor", cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(1))
+				.andExpect(jsonPath("$.collection[0].productId").value(100))
+				.andExpect(jsonPath("$.hasNext").value(false));
+		mockMvc.perform(get("/api/favourites/users/{userId}", 2).param("cursor", cursor))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("Should list and count the users who favourited a product")
+	void testGetFavouritesByProduct_UsersAndCount() throws Exception {
+		// Given
+		for (int i = 0; i < 3; i++) {
+			favouriteRepository.save(Favourite.builder()
+					.userId(1 + i)
+					.productId(100)
+					.likeDate(testLikeDate.plusDays(i))
+					.build());
+		}
+		favouriteRepository.save(Favourite.builder()
+				.userId(1)
+				.productId(200)
+				.likeDate(testLikeDate)
+				.build());
+
+		favouriteCounterService.rebuild();
+
+		// When & Then
+		mockMvc.perform(get("/api/favourites/products/{productId}/users", 100).param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(2))
+				.andExpect(jsonPath("$.collection[0].userId").value(3))
+				.andExpect(jsonPath("$.collection[1].userId").value(2))
+				.andExpect(jsonPath("$.hasNext").value(true));
+		mockMvc.perform(get("/api/favourites/products/{productId}/count", 100))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").value(3));
+		mockMvc.perform(get("/api/favourites/products/{productId}/count", 999))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").value(0));
+	}
+
+	@Test
+	@DisplayName("Should save favourites in bulk with a result per item")
+	void testBulkSave_PerItemResults() throws Exception {
+		// Given
+		FavouriteDto favouriteDto = FavouriteDto.builder()
+				.userId(1)
+				.productId(100)
+				.likeDate(testLikeDate)
+				.build();
+		FavouriteDto invalidDto = FavouriteDto.builder()
+				.userId(1)
+				.likeDate(testLikeDate)
+				.build();
+
+		// When & Then
+		mockMvc.perform(post("/api/favourites/bulk")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Arrays.asList(favouriteDto, favouriteDto, invalidDto))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(3))
+				.andExpect(jsonPath("$.collection[0].status").value("CREATED"))
+				.andExpect(jsonPath("$.collection[1].status").value("DUPLICATE"))
+				.andExpect(jsonPath("$.collection[2].status").value("INVALID"));
+
+		assertEquals(1, favouriteRepository.count());
+	}
+
+	@Test
+	@DisplayName("Should delete favourites in bulk with a result per item")
+	void testBulkDelete_PerItemResults() throws Exception {
+		// Given
+		Favourite favourite = favouriteRepository.saveAndFlush(Favourite.builder()
+				.userId(1)
+				.productId(100)
+				.likeDate(testLikeDate)
+				.build());
+		List<FavouriteId> favouriteIds = List.of(
+				new FavouriteId(favourite.getUserId(), favourite.getProductId(), favourite.getLikeDate()),
+				new FavouriteId(2, 200, testLikeDate));
+
+		// When & Then
+		mockMvc.perform(delete("/api/favourites/bulk")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(favouriteIds)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].status").value("DELETED"))
+				.andExpect(jsonPath("$.collection[1].status").value("NOT_FOUND"));
+
+		assertEquals(0, favouriteRepository.count());
+	}
+
+	@Test
+	@DisplayName("Should delete every favourite of a user in one statement")
+	void testDeleteAllByUser() throws Exception {
+		// Given
+		for (int i = 0; i < 3; i++) {
+			favouriteRepository.save(Favourite.builder()
+					.userId(1)
+					.productId(100 + i)
+					.likeDate(testLikeDate)
+					.build());
+		}
+		favouriteRepository.saveAndFlush(Favourite.builder()
+				.userId(2)
+				.productId(100)
+				.likeDate(testLikeDate)
+				.build());
+
+		// When & Then
+		mockMvc.perform(delete("/api/favourites/users/{userId}", 1))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").value(3));
+
+		assertEquals(1, favouriteRepository.count());
+	}
+
+	@Test
+	@DisplayName("Should like a product once per user and replay retried calls by idempotency key")
+	void testLikeUnlike_Idempotent() throws Exception {
+		// Given
+		favouriteRepository.saveAndFlush(Favourite.builder()
+				.userId(1)
+				.productId(100)
+				.likeDate(testLikeDate)
+				.build());
+
+		// When & Then - liking again adds nothing, whatever the like date
+		mockMvc.perform(put("/api/favourites/users/{userId}/products/{productId}", 1, 100))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.liked").value(true))
+				.andExpect(jsonPath("$.changed").value(false));
+		mockMvc.perform(put("/api/favourites/users/{userId}/products/{productId}", 1, 200)
+						.header(AppConstant.IDEMPOTENCY_KEY_HEADER, "like-1-200"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.changed").value(true));
+		mockMvc.perform(delete("/api/favourites/users/{userId}/products/{productId}", 1, 200)
+						.header(AppConstant.IDEMPOTENCY_KEY_HEADER, "unlike-1-200"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.liked").value(false))
+				.andExpect(jsonPath("$.changed").value(true));
+
+		// A late retry of the like is answered from memory and does not undo the unlike
+		mockMvc.perform(put("/api/favourites/users/{userId}/products/{productId}", 1, 200)
+						.header(AppConstant.IDEMPOTENCY_KEY_HEADER, "like-1-200"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.changed").value(true));
+		mockMvc.perform(put("/api/favourites/users/{userId}/products/{productId}", 1, 300)
+						.header(AppConstant.IDEMPOTENCY_KEY_HEADER, "like-1-200"))
+				.andExpect(status().isUnprocessableEntity());
+
+		assertEquals(1, favouriteRepository.count());
+		assertEquals(0L, favouriteRepository.countByProductId(200));
+	}
+
+	@Test
+	@DisplayName("Should serve Smile to clients asking for it and JSON otherwise")
+	void testContentNegotiation_Smile() throws Exception {
+		// Given
+		createFavouriteInDatabase();
+
+		// When & Then
+		performAsync(get("/api/favourites").accept("application/x-jackson-smile"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"));
+		performAsync(get("/api/favourites"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	@DisplayName("Should answer a matching If-None-Match with 304 until the user's favourites change")
+	void testGetFavouritesByUser_ConditionalGet() throws Exception {
+		// Given
+		favouriteRepository.save(Favourite.builder()
+				.userId(1)
+				.productId(100)
+				.likeDate(testLikeDate)
+				.build());
+		String eTag = mockMvc.perform(get("/api/favourites/users/{userId}", 1))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+		// When & Then
+		mockMvc.perform(get("/api/favourites/users/{userId}", 1).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+
+		mockMvc.perform(put("/api/favourites/users/{userId}/products/{productId}", 1, 200))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/favourites/users/{userId}", 1).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(2));
+		// Another user's favourites keep their own tag
+		mockMvc.perform(get("/api/favourites/users/{userId}", 2).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@DisplayName("Should answer 304 on a product's page until the product's favourites change")
+	void testGetFavouritesByProduct_ConditionalGet() throws Exception {
+		// Given
+		mockMvc.perform(post("/api/favourites/bulk")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(List.of(
+						FavouriteDto.builder().userId(1).productId(100).likeDate(testLikeDate).build(),
+						FavouriteDto.builder().userId(2).productId(100).likeDate(testLikeDate.minusDays(1)).build()))))
+				.andExpect(status().isOk());
+		String eTag = mockMvc.perform(get("/api/favourites/products/{productId}/users", 100).param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+		// When & Then
+		mockMvc.perform(get("/api/favourites/products/{productId}/users", 100).param("limit", "1")
+						.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+
+		// Another product's likes leave the tag alone
+		mockMvc.perform(put("/api/favourites/users/{userId}/products/{productId}", 3, 200))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/favourites/products/{productId}/users", 100).param("limit", "1")
+						.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+
+		// A newer like moves onto the first page
+		mockMvc.perform(put("/api/favourites/users/{userId}/products/{productId}", 3, 100))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/favourites/products/{productId}/users", 100).param("limit", "1")
+						.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection[0].userId").value(3));
+	}
+
+	@Test
+	@DisplayName("Should answer 304 on the unscoped listings until any favourite changes")
+	void testGetFavourites_ConditionalGet() throws Exception {
+		// Given
+		Favourite favourite = createFavouriteInDatabase();
+		String pageETag = mockMvc.perform(get("/api/favourites/page"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		String allETag = performAsync(get("/api/favourites"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+		// When & Then
+		mockMvc.perform(get("/api/favourites/page").header(HttpHeaders.IF_NONE_MATCH, pageETag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+		mockMvc.perform(get("/api/favourites").header(HttpHeaders.IF_NONE_MATCH, allETag))
+				.andExpect(status().isNotModified())
+				.andExpect(request().asyncNotStarted());
+
+		mockMvc.perform(delete("/api/favourites/{userId}/{productId}/{likeDate}",
+						1, 100, favourite.getLikeDate().format(formatter)))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/favourites/page").header(HttpHeaders.IF_NONE_MATCH, pageETag))
+				.andExpect(status().isOk());
+		performAsync(get("/api/favourites").header(HttpHeaders.IF_NONE_MATCH, allETag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@DisplayName("Should report the state of each downstream circuit breaker on the health endpoint")
+	void testHealth_CircuitBreakers() throws Exception {
+		// When & Then
+		mockMvc.perform(get("/actuator/health"))
+				.andExpect(jsonPath("$.components.circuitBreakers.details.userService.details.state").value("CLOSED"))
+				.andExpect(jsonPath("$.components.circuitBreakers.details.productService.details.state").value("CLOSED"));
+	}
+
+	@Test
+	@DisplayName("Should move likes past the horizon to the archive and count only recent likes")
+	void testArchive_MovesOldLikes() throws Exception {
+		// Given
+		LocalDateTime recent = LocalDateTime.now().minusHours(1).withNano(0);
+		favouriteRepository.save(Favourite.builder().userId(1).productId(100).likeDate(recent).build());
+		favouriteRepository.save(Favourite.builder().userId(2).productId(100).likeDate(recent.minusYears(3)).build());
+		favouriteRepository.saveAndFlush(Favourite.builder().userId(3).productId(100).likeDate(recent.minusYears(4)).build());
+
+		mockMvc.perform(get("/api/favourites/products/{productId}/count", 100)
+				.param("since", recent.minusDays(1).format(formatter)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").value(1));
+
+		// When
+		int archived = favouriteArchiveService.archive();
+
+		// Then
+		assertEquals(2, archived);
+		assertEquals(1, favouriteRepository.countByProductId(100));
+		assertEquals(2, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM favourites_archive WHERE product_id = 100", Integer.class));
+	}
+
 	/**
 	 * Helper method to create a favourite in the database
 	 */
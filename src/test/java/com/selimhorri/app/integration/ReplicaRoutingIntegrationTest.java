@@ -0,0 +1,151 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.config.datasource.ReplicaDataSourceConfig;
+import com.selimhorri.app.dto.FavouriteDto;
+
+/**
+ * Runs the service against two H2 databases, a primary and a replica that does not
+ * replicate, so every row shows which of them served a statement.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+		"app.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+		"app.datasource.replica.username=sa",
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Read Replica Routing Integration Tests")
+class ReplicaRoutingIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	@Qualifier(ReplicaDataSourceConfig.PRIMARY_DATA_SOURCE)
+	private DataSource primaryDataSource;
+
+	@Autowired
+	@Qualifier(ReplicaDataSourceConfig.REPLICA_DATA_SOURCE)
+	private DataSource replicaDataSource;
+
+	@MockBean
+	private RestTemplate restTemplate;
+
+	private JdbcTemplate primary;
+	private JdbcTemplate replica;
+
+	@BeforeEach
+	void setUp() {
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(replicaDataSource);
+		replica.execute("CREATE TABLE IF NOT EXISTS favourites ("
+				+ "user_id INT NOT NULL, product_id INT NOT NULL, like_date TIMESTAMP NOT NULL, "
+				+ "created_at TIMESTAMP, updated_at TIMESTAMP, "
+				+ "PRIMARY KEY (user_id, product_id, like_date))");
+		replica.execute("CREATE TABLE IF NOT EXISTS favourite_changes ("
+				+ "change_id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL, product_id INT NOT NULL, "
+				+ "changed_at TIMESTAMP NOT NULL)");
+	}
+
+	@AfterEach
+	void tearDown() {
+		primary.update("DELETE FROM favourites");
+		replica.update("DELETE FROM favourites");
+		primary.update("DELETE FROM favourite_changes");
+		replica.update("DELETE FROM favourite_changes");
+	}
+
+	@Test
+	@DisplayName("Should serve reads from the replica")
+	void testRead_UsesReplica() throws Exception {
+		// Given
+		replica.update("INSERT INTO favourites (user_id, product_id, like_date, created_at) VALUES (?, ?, ?, ?)",
+				7, 700, Timestamp.valueOf(LocalDateTime.of(2024, 1, 15, 10, 30)), Timestamp.valueOf(LocalDateTime.now()));
+
+		// When & Then
+		mockMvc.perform(get("/api/favourites/users/{userId}", 7))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(1))
+				.andExpect(jsonPath("$.collection[0].productId").value(700));
+	}
+
+	@Test
+	@DisplayName("Should send writes to the primary")
+	void testWrite_UsesPrimary() throws Exception {
+		// Given
+		FavouriteDto favouriteDto = FavouriteDto.builder()
+				.userId(8)
+				.productId(800)
+				.likeDate(LocalDateTime.of(2024, 1, 15, 10, 30))
+				.build();
+
+		// When
+		mockMvc.perform(post("/api/favourites")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(favouriteDto)))
+				.andExpect(status().isOk());
+
+		// Then
+		assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM favourites WHERE user_id = 8", Integer.class));
+		assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM favourites WHERE user_id = 8", Integer.class));
+	}
+
+	@Test
+	@DisplayName("Should read a tagged listing on the primary until the replica has the version it is tagged with")
+	void testRead_UsesPrimaryWhileReplicaLags() throws Exception {
+		// Given
+		FavouriteDto favouriteDto = FavouriteDto.builder()
+				.userId(9)
+				.productId(900)
+				.likeDate(LocalDateTime.of(2024, 1, 15, 10, 30))
+				.build();
+		mockMvc.perform(post("/api/favourites")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(favouriteDto)))
+				.andExpect(status().isOk());
+
+		// When & Then
+		mockMvc.perform(get("/api/favourites/users/{userId}", 9))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(1));
+
+		// Once the replica has the change, though not yet the favourite, the listing is read there
+		replica.update("INSERT INTO favourite_changes (change_id, user_id, product_id, changed_at) VALUES (?, ?, ?, ?)",
+				primary.queryForObject("SELECT MAX(change_id) FROM favourite_changes", Long.class), 9, 900,
+				Timestamp.valueOf(LocalDateTime.now()));
+		mockMvc.perform(get("/api/favourites/users/{userId}", 9))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.collection.length()").value(0));
+	}
+
+}
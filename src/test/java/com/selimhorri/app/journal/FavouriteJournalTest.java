@@ -0,0 +1,92 @@
+package com.selimhorri.app.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.journal.FavouriteJournal.Operation;
+
+@DisplayName("FavouriteJournal Unit Tests")
+class FavouriteJournalTest {
+	
+	@TempDir
+	Path directory;
+	
+	private final LocalDateTime likeDate = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123456000);
+	
+	@Test
+	@DisplayName("Should replay the records of a previous run in order")
+	void testReplay_AfterRestart() throws Exception {
+		// Given
+		try (FavouriteJournal journal = new FavouriteJournal(directory, true)) {
+			journal.sync(journal.write(Operation.ADD, new FavouriteId(1, 100, likeDate)));
+			journal.roll();
+			journal.sync(journal.write(Operation.REMOVE, new FavouriteId(1, 100, likeDate)));
+			journal.sync(journal.write(Operation.ADD, new FavouriteId(2, 200, likeDate)));
+		}
+		
+		// When
+		final List<String> replayed = new ArrayList<>();
+		try (FavouriteJournal journal = new FavouriteJournal(directory, true)) {
+			assertEquals(3, journal.replay((operation, id) -> replayed.add(operation + " " + id.getUserId())));
+			assertEquals(3L * FavouriteJournal.RECORD_SIZE, journal.size());
+		}
+		
+		// Then
+		assertEquals(List.of("ADD 1", "REMOVE 1", "ADD 2"), replayed);
+	}
+	
+	@Test
+	@DisplayName("Should stop replaying at a torn record")
+	void testReplay_TornRecord() throws Exception {
+		// Given
+		try (FavouriteJournal journal = new FavouriteJournal(directory, false)) {
+			journal.write(Operation.ADD, new FavouriteId(1, 100, likeDate));
+			journal.write(Operation.ADD, new FavouriteId(2, 200, likeDate));
+		}
+		try (var segments = Files.list(directory)) {
+			final Path segment = segments.findFirst().orElseThrow();
+			Files.write(segment, new byte[] { 0, 0, 0, 7, 1 }, StandardOpenOption.APPEND);
+		}
+		
+		// When
+		final List<FavouriteId> replayed = new ArrayList<>();
+		try (FavouriteJournal journal = new FavouriteJournal(directory, false)) {
+			journal.replay((operation, id) -> replayed.add(id));
+		}
+		
+		// Then
+		assertEquals(List.of(new FavouriteId(1, 100, likeDate), new FavouriteId(2, 200, likeDate)), replayed);
+	}
+	
+	@Test
+	@DisplayName("Should drop rolled segments once applied")
+	void testDeleteThrough_RolledSegments() throws Exception {
+		try (FavouriteJournal journal = new FavouriteJournal(directory, false)) {
+			// Given
+			journal.write(Operation.ADD, new FavouriteId(1, 100, likeDate));
+			final long rolled = journal.roll();
+			journal.write(Operation.ADD, new FavouriteId(2, 200, likeDate));
+			
+			// When
+			journal.deleteThrough(rolled);
+			
+			// Then
+			assertEquals(FavouriteJournal.RECORD_SIZE, journal.size());
+			try (var segments = Files.list(directory)) {
+				assertEquals(1L, segments.count());
+			}
+		}
+	}
+	
+}
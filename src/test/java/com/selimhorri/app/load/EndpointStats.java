@@ -0,0 +1,75 @@
+package com.selimhorri.app.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency distribution and error count of one endpoint under load. Recording is
+ * lock-free and safe from any number of driver threads.
+ */
+final class EndpointStats {
+	
+	private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+	
+	private final String name;
+	private final Recorder recorder = new Recorder(MAX_TRACKABLE_NANOS, 3);
+	private final LongAdder errors = new LongAdder();
+	private Histogram histogram;
+	
+	EndpointStats(final String name) {
+		this.name = name;
+	}
+	
+	String name() {
+		return this.name;
+	}
+	
+	void record(final long nanos, final boolean ok) {
+		this.recorder.recordValue(Math.min(nanos, MAX_TRACKABLE_NANOS));
+		if (!ok)
+			this.errors.increment();
+	}
+	
+	/**
+	 * Drops everything recorded so far, used to discard the warm-up phase.
+	 */
+	void reset() {
+		this.recorder.reset();
+		this.errors.reset();
+	}
+	
+	/**
+	 * Freezes the distribution recorded since the last reset; call once, after the run.
+	 */
+	void close() {
+		this.histogram = this.recorder.getIntervalHistogram();
+	}
+	
+	long requests() {
+		return this.histogram.getTotalCount();
+	}
+	
+	long errors() {
+		return this.errors.sum();
+	}
+	
+	double errorRate() {
+		return this.requests() == 0 ? 0 : (double) this.errors() / this.requests();
+	}
+	
+	double throughput(final double seconds) {
+		return this.requests() / seconds;
+	}
+	
+	double percentileMillis(final double percentile) {
+		return this.histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+	}
+	
+	double maxMillis() {
+		return this.histogram.getMaxValue() / 1_000_000.0;
+	}
+	
+}
@@ -0,0 +1,404 @@
+package com.selimhorri.app.load;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.stub.StubDownstreamServer;
+
+/**
+ * Load test of the full service on H2, with USER-SERVICE and PRODUCT-SERVICE replaced
+ * by an in-process stub reached through the regular load-balanced client. A fixed
+ * number of closed-loop workers drive a weighted mix of reads and writes; after a
+ * warm-up, throughput and p50/p99/p999 are reported per endpoint as a table in
+ * {@code target/load-test-report.txt} and as JSON in {@code target/load-test-report.json}, and the run fails when an endpoint exceeds the
+ * error rate or p99 budget.
+ * <p>
+ * Excluded from the default build; run with {@code ./mvnw -Pload-test test} and tune
+ * with {@code -Dloadtest.*} system properties (see {@link Settings}).
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.jpa.show-sql=false",
+		"spring.zipkin.enabled=false",
+		"logging.level.root=WARN",
+		"logging.level.com.selimhorri.app=WARN"
+})
+@ActiveProfiles("test")
+@Tag("load")
+@DisplayName("Favourite Service Load Test")
+class FavouriteLoadTest {
+	
+	private static final int USERS = 500;
+	private static final int PRODUCTS = 200;
+	private static final int SEED_CHUNK = 1_000;
+	private static final int BULK_SIZE = 50;
+	private static final LocalDateTime SEED_EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+	private static final LocalDateTime WRITE_EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(AppConstant.LOCAL_DATE_TIME_FORMAT);
+	
+	private static StubDownstreamServer stub;
+	
+	@LocalServerPort
+	private int port;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	private final HttpClient httpClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+	private final List<FavouriteId> seeded = new ArrayList<>();
+	private final Queue<FavouriteId> written = new ConcurrentLinkedQueue<>();
+	private final AtomicLong writeSequence = new AtomicLong();
+	private String baseUrl;
+	
+	@DynamicPropertySource
+	static void downstreamServices(final DynamicPropertyRegistry registry) throws IOException {
+		stub = StubDownstreamServer.start();
+		registry.add("spring.cloud.discovery.client.simple.instances[USER-SERVICE][0].uri",
+				() -> "http://localhost:" + stub.port());
+		registry.add("spring.cloud.discovery.client.simple.instances[PRODUCT-SERVICE][0].uri",
+				() -> "http://localhost:" + stub.port());
+	}
+	
+	@AfterAll
+	static void stopDownstreamServices() {
+		stub.close();
+	}
+	
+	@Test
+	@DisplayName("Should serve mixed traffic within the latency and error budgets")
+	void testMixedTraffic() throws Exception {
+		final Settings settings = new Settings();
+		this.baseUrl = "http://localhost:" + this.port + "/favourite-service/api/favourites";
+		stub.latency(settings.downstreamLatency, settings.downstreamJitter)
+				.errorRate(settings.downstreamErrorRate);
+		this.seed(settings.seedRows);
+		
+		final List<Operation> operations = this.operations(settings);
+		final int totalWeight = operations.stream().mapToInt(o -> o.weight).sum();
+		
+		this.drive(operations, totalWeight, settings.concurrency, settings.warmup);
+		operations.forEach(o -> o.stats.reset());
+		final long start = System.nanoTime();
+		this.drive(operations, totalWeight, settings.concurrency, settings.duration);
+		final double seconds = (System.nanoTime() - start) / 1e9;
+		operations.forEach(o -> o.stats.close());
+		
+		this.report(settings, operations, seconds);
+		
+		assertAll(operations.stream()
+				.filter(o -> o.stats.requests() > 0)
+				.flatMap(o -> List.<Executable>of(
+						() -> assertTrue(o.stats.errorRate() <= settings.maxErrorRate,
+								() -> String.format("%s error rate %.4f exceeds %.4f", o.name, o.stats.errorRate(), settings.maxErrorRate)),
+						() -> assertTrue(o.stats.percentileMillis(99) <= o.p99Budget.toMillis(),
+								() -> String.format("%s p99 %.1fms exceeds %dms", o.name, o.stats.percentileMillis(99), o.p99Budget.toMillis())))
+						.stream()));
+	}
+	
+	private List<Operation> operations(final Settings settings) {
+		final Duration budget = settings.p99Budget;
+		final List<Operation> operations = new ArrayList<>();
+		// Reads ask for the expansions a rendering client would, keeping enrichment in the mix
+		// The unpaged listing grows with the table; it gets a budget of its own
+		operations.add(new Operation("GET /api/favourites", 2, settings.findAllP99Budget,
+				random -> new Call(get("?expand=user,product"))));
+		operations.add(new Operation("GET /api/favourites/page", 15, budget,
+				random -> new Call(get("/page?size=50&expand=user,product"))));
+		operations.add(new Operation("GET /api/favourites/users/{userId}", 20, budget,
+				random -> new Call(get("/users/" + (1 + random.nextInt(USERS)) + "?limit=20&expand=user,product"))));
+		operations.add(new Operation("GET /api/favourites/products/{productId}/users", 10, budget,
+				random -> new Call(get("/products/" + (1 + random.nextInt(PRODUCTS)) + "/users?limit=20&expand=user"))));
+		operations.add(new Operation("GET /api/favourites/products/{productId}/count", 15, budget,
+				random -> new Call(get("/products/" + (1 + random.nextInt(PRODUCTS)) + "/count"))));
+		operations.add(new Operation("GET /api/favourites/{userId}/{productId}/{likeDate}", 15, budget,
+				random -> new Call(get(path(this.seeded.get(random.nextInt(this.seeded.size()))) + "?expand=user,product"))));
+		operations.add(new Operation("POST /api/favourites", 12, budget,
+				random -> {
+					final FavouriteDto favouriteDto = this.newFavourite(random);
+					return new Call(this.post("", favouriteDto), () -> this.written.add(id(favouriteDto)));
+				}));
+		operations.add(new Operation("DELETE /api/favourites/{userId}/{productId}/{likeDate}", 8, budget,
+				random -> {
+					final FavouriteId favouriteId = this.written.poll();
+					return favouriteId == null ? null : new Call(this.request(path(favouriteId)).DELETE().build());
+				}));
+		operations.add(new Operation("POST /api/favourites/bulk", 3, budget,
+				random -> {
+					final List<FavouriteDto> favouriteDtos = new ArrayList<>(BULK_SIZE);
+					for (int i = 0; i < BULK_SIZE; i++)
+						favouriteDtos.add(this.newFavourite(random));
+					return new Call(this.post("/bulk", favouriteDtos),
+							() -> favouriteDtos.forEach(f -> this.written.add(id(f))));
+				}));
+		return operations;
+	}
+	
+	/**
+	 * Runs closed-loop workers for the given time, each sending its next request as soon
+	 * as the previous one completes.
+	 */
+	private void drive(final List<Operation> operations, final int totalWeight, final int concurrency,
+			final Duration duration) throws Exception {
+		final long deadline = System.nanoTime() + duration.toNanos();
+		final ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+		try {
+			final List<Future<?>> futures = new ArrayList<>(concurrency);
+			for (int i = 0; i < concurrency; i++) {
+				futures.add(workers.submit(() -> {
+					final Random random = ThreadLocalRandom.current();
+					while (System.nanoTime() < deadline)
+						this.send(pick(operations, totalWeight, random), random);
+				}));
+			}
+			for (final Future<?> future : futures)
+				future.get();
+		}
+		finally {
+			workers.shutdownNow();
+		}
+	}
+	
+	private void send(final Operation operation, final Random random) {
+		final Call call = operation.call.apply(random);
+		if (call == null)
+			return;
+		final long start = System.nanoTime();
+		boolean ok;
+		try {
+			final int status = this.httpClient.send(call.request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			ok = status >= 200 && status < 300;
+		}
+		catch (IOException e) {
+			ok = false;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		operation.stats.record(System.nanoTime() - start, ok);
+		if (ok)
+			call.onSuccess.run();
+	}
+	
+	private void seed(final int rows) throws Exception {
+		for (int offset = 0; offset < rows; offset += SEED_CHUNK) {
+			final List<FavouriteDto> chunk = new ArrayList<>(SEED_CHUNK);
+			for (int i = offset; i < Math.min(rows, offset + SEED_CHUNK); i++) {
+				final FavouriteId favouriteId = new FavouriteId(1 + i % USERS, 1 + (i * 7) % PRODUCTS, SEED_EPOCH.plusSeconds(i));
+				this.seeded.add(favouriteId);
+				chunk.add(FavouriteDto.builder()
+						.userId(favouriteId.getUserId())
+						.productId(favouriteId.getProductId())
+						.likeDate(favouriteId.getLikeDate())
+						.build());
+			}
+			assertEquals(200, this.httpClient.send(this.post("/bulk", chunk), HttpResponse.BodyHandlers.discarding()).statusCode());
+		}
+	}
+	
+	/**
+	 * A favourite with a like date no other write uses, at microsecond precision.
+	 */
+	private FavouriteDto newFavourite(final Random random) {
+		return FavouriteDto.builder()
+				.userId(1 + random.nextInt(USERS))
+				.productId(1 + random.nextInt(PRODUCTS))
+				.likeDate(WRITE_EPOCH.plusNanos(this.writeSequence.incrementAndGet() * 1_000L))
+				.build();
+	}
+	
+	private void report(final Settings settings, final List<Operation> operations, final double seconds) throws IOException {
+		final StringBuilder table = new StringBuilder(String.format("%-58s %9s %8s %9s %9s %9s %9s %9s%n",
+				"Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+		final List<Map<String, Object>> endpoints = new ArrayList<>();
+		for (final Operation operation : operations) {
+			final EndpointStats stats = operation.stats;
+			if (stats.requests() == 0)
+				continue;
+			table.append(String.format("%-58s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+					operation.name, stats.requests(), stats.errors(), stats.throughput(seconds),
+					stats.percentileMillis(50), stats.percentileMillis(99), stats.percentileMillis(99.9), stats.maxMillis()));
+			
+			final Map<String, Object> endpoint = new LinkedHashMap<>();
+			endpoint.put("endpoint", operation.name);
+			endpoint.put("requests", stats.requests());
+			endpoint.put("errors", stats.errors());
+			endpoint.put("throughput", stats.throughput(seconds));
+			endpoint.put("p50Millis", stats.percentileMillis(50));
+			endpoint.put("p99Millis", stats.percentileMillis(99));
+			endpoint.put("p999Millis", stats.percentileMillis(99.9));
+			endpoint.put("maxMillis", stats.maxMillis());
+			endpoints.add(endpoint);
+		}
+		Files.writeString(Path.of("target/load-test-report.txt"), table);
+		
+		final Map<String, Object> report = new LinkedHashMap<>();
+		report.put("settings", settings.asMap());
+		report.put("durationSeconds", seconds);
+		report.put("downstreamRequests", stub.requests());
+		report.put("endpoints", endpoints);
+		this.objectMapper.writer()
+				.with(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(new File("target/load-test-report.json"), report);
+	}
+	
+	private HttpRequest get(final String path) {
+		return this.request(path).GET().build();
+	}
+	
+	private HttpRequest post(final String path, final Object body) {
+		try {
+			return this.request(path)
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofByteArray(this.objectMapper.writeValueAsBytes(body)))
+					.build();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private HttpRequest.Builder request(final String path) {
+		return HttpRequest.newBuilder(URI.create(this.baseUrl + path))
+				.timeout(Duration.ofSeconds(30));
+	}
+	
+	private static FavouriteId id(final FavouriteDto favouriteDto) {
+		return new FavouriteId(favouriteDto.getUserId(), favouriteDto.getProductId(), favouriteDto.getLikeDate());
+	}
+	
+	private static String path(final FavouriteId favouriteId) {
+		return "/" + favouriteId.getUserId() + "/" + favouriteId.getProductId() + "/" + FORMATTER.format(favouriteId.getLikeDate());
+	}
+	
+	private static Operation pick(final List<Operation> operations, final int totalWeight, final Random random) {
+		int ticket = random.nextInt(totalWeight);
+		for (final Operation operation : operations) {
+			ticket -= operation.weight;
+			if (ticket < 0)
+				return operation;
+		}
+		throw new IllegalStateException("Weights do not add up");
+	}
+	
+	private static final class Operation {
+		
+		private final String name;
+		private final int weight;
+		private final Duration p99Budget;
+		private final Function<Random, Call> call;
+		private final EndpointStats stats;
+		
+		private Operation(final String name, final int weight, final Duration p99Budget, final Function<Random, Call> call) {
+			this.name = name;
+			this.weight = weight;
+			this.p99Budget = p99Budget;
+			this.call = call;
+			this.stats = new EndpointStats(name);
+		}
+		
+	}
+	
+	/**
+	 * One request, and what to remember once it succeeds (keys a later DELETE may use).
+	 */
+	private static final class Call {
+		
+		private final HttpRequest request;
+		private final Runnable onSuccess;
+		
+		private Call(final HttpRequest request) {
+			this(request, () -> {});
+		}
+		
+		private Call(final HttpRequest request, final Runnable onSuccess) {
+			this.request = request;
+			this.onSuccess = onSuccess;
+		}
+		
+	}
+	
+	/**
+	 * Run parameters, read from {@code loadtest.*} system properties.
+	 */
+	private static final class Settings {
+		
+		private final Duration warmup = duration("loadtest.warmup", "PT10S");
+		private final Duration duration = duration("loadtest.duration", "PT30S");
+		private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+		private final int seedRows = Integer.getInteger("loadtest.seed-rows", 5_000);
+		private final Duration downstreamLatency = duration("loadtest.downstream-latency", "PT0.005S");
+		private final Duration downstreamJitter = duration("loadtest.downstream-jitter", "PT0.010S");
+		private final double downstreamErrorRate = Double.parseDouble(System.getProperty("loadtest.downstream-error-rate", "0"));
+		private final double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+		private final Duration p99Budget = duration("loadtest.p99-budget", "PT1S");
+		private final Duration findAllP99Budget = duration("loadtest.find-all-p99-budget", "PT10S");
+		
+		private static Duration duration(final String key, final String defaultValue) {
+			return Duration.parse(System.getProperty(key, defaultValue));
+		}
+		
+		private Map<String, Object> asMap() {
+			final Map<String, Object> map = new LinkedHashMap<>();
+			map.put("warmup", this.warmup.toString());
+			map.put("duration", this.duration.toString());
+			map.put("concurrency", this.concurrency);
+			map.put("seedRows", this.seedRows);
+			map.put("downstreamLatency", this.downstreamLatency.toString());
+			map.put("downstreamJitter", this.downstreamJitter.toString());
+			map.put("downstreamErrorRate", this.downstreamErrorRate);
+			map.put("maxErrorRate", this.maxErrorRate);
+			map.put("p99Budget", this.p99Budget.toString());
+			map.put("findAllP99Budget", this.findAllP99Budget.toString());
+			return map;
+		}
+		
+	}
+	
+}
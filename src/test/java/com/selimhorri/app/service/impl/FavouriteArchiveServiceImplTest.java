@@ -0,0 +1,106 @@
+package com.selimhorri.app.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.selimhorri.app.config.archive.ArchiveProperties;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.repository.FavouritePartitionRepository;
+import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.FavouriteCounterService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FavouriteArchiveServiceImpl Unit Tests")
+class FavouriteArchiveServiceImplTest {
+
+	@Mock
+	private FavouriteRepository favouriteRepository;
+
+	@Mock
+	private FavouritePartitionRepository favouritePartitionRepository;
+
+	@Mock
+	private FavouriteCounterService favouriteCounterService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private ArchiveProperties properties;
+	private FavouriteArchiveServiceImpl archiveService;
+
+	private final LocalDateTime oldDate = LocalDateTime.of(2020, 1, 15, 10, 30);
+
+	@BeforeEach
+	void setUp() {
+		properties = new ArchiveProperties();
+		properties.setEnabled(true);
+		properties.setHorizon(Period.ofYears(1));
+		properties.setBatchSize(2);
+		archiveService = new FavouriteArchiveServiceImpl(properties, favouriteRepository, favouritePartitionRepository,
+				favouriteCounterService, transactionManager, new SimpleMeterRegistry());
+	}
+
+	@Test
+	@DisplayName("Should archive old likes in batches until a batch comes back short")
+	void testArchive_Batches() {
+		// Given
+		final List<FavouriteId> first = List.of(
+				new FavouriteId(1, 100, oldDate), new FavouriteId(2, 100, oldDate.plusMinutes(1)));
+		final List<FavouriteId> second = List.of(new FavouriteId(3, 200, oldDate.plusMinutes(2)));
+		when(favouriteRepository.findIdsLikedBefore(any(LocalDateTime.class), any(PageRequest.class)))
+				.thenReturn(first)
+				.thenReturn(second);
+		when(favouriteRepository.batchDelete(first)).thenReturn(new int[] { 1, 1 });
+		when(favouriteRepository.batchDelete(second)).thenReturn(new int[] { 1 });
+
+		// When
+		int archived = archiveService.archive();
+
+		// Then
+		assertEquals(3, archived);
+		verify(favouriteRepository).batchArchive(first);
+		verify(favouriteRepository).batchArchive(second);
+		verify(favouriteCounterService).adjust(100, -2L);
+		verify(favouriteCounterService).adjust(200, -1L);
+		verify(favouriteRepository).recordChanges(first);
+		verify(favouriteRepository).recordChanges(second);
+		verify(favouritePartitionRepository).dropEmptyPartitionsBefore(YearMonth.now().minusYears(1));
+	}
+
+	@Test
+	@DisplayName("Should keep partitions up to date but archive nothing when disabled")
+	void testRun_Disabled() {
+		// Given
+		properties.setEnabled(false);
+		properties.setPartitionsAhead(2);
+
+		// When
+		archiveService.run();
+
+		// Then
+		verify(favouritePartitionRepository).addPartitionsThrough(YearMonth.now().plusMonths(2));
+		verify(favouriteRepository, never()).findIdsLikedBefore(any(), any());
+		verify(favouriteCounterService, never()).adjust(any(), anyLong());
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.selimhorri.app.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.selimhorri.app.repository.FavouriteRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FavouriteCounterServiceImpl Unit Tests")
+class FavouriteCounterServiceImplTest {
+	
+	@Mock
+	private FavouriteRepository favouriteRepository;
+	
+	@InjectMocks
+	private FavouriteCounterServiceImpl favouriteCounterService;
+	
+	@Test
+	@DisplayName("Should answer from the database until counters are loaded")
+	void testCount_BeforeRebuild() {
+		// Given
+		when(favouriteRepository.countByProductId(100)).thenReturn(4L);
+		
+		// When & Then
+		assertEquals(4L, favouriteCounterService.count(100));
+	}
+	
+	@Test
+	@DisplayName("Should answer from memory once counters are loaded")
+	void testCount_AfterRebuild() {
+		// Given
+		when(favouriteRepository.countGroupByProductId()).thenReturn(List.of(
+				new Object[] { 100, 3L },
+				new Object[] { 200, 1L }));
+		
+		// When
+		int products = favouriteCounterService.rebuild();
+		favouriteCounterService.increment(100);
+		favouriteCounterService.decrement(200);
+		
+		// Then
+		assertEquals(2, products);
+		assertEquals(4L, favouriteCounterService.count(100));
+		assertEquals(0L, favouriteCounterService.count(200));
+		assertEquals(0L, favouriteCounterService.count(300));
+		verify(favouriteRepository, never()).countByProductId(100);
+	}
+	
+	@Test
+	@DisplayName("Should replace drifted counts on reconciliation")
+	void testReconcile_FixesDrift() {
+		// Given
+		when(favouriteRepository.countGroupByProductId())
+				.thenReturn(List.<Object[]>of(new Object[] { 100, 3L }))
+				.thenReturn(List.<Object[]>of(new Object[] { 100, 5L }));
+		favouriteCounterService.rebuild();
+		favouriteCounterService.increment(100);
+		
+		// When
+		favouriteCounterService.reconcile();
+		
+		// Then
+		assertEquals(5L, favouriteCounterService.count(100));
+		verify(favouriteRepository, times(2)).countGroupByProductId();
+	}
+	
+	@Test
+	@DisplayName("Should keep updates made while the counts are read")
+	void testRebuild_ReplaysConcurrentUpdates() {
+		// Given - a like committing while the rebuild reads the counts without it
+		when(favouriteRepository.countGroupByProductId()).thenAnswer(invocation -> {
+			favouriteCounterService.increment(100);
+			return List.<Object[]>of(new Object[] { 100, 3L });
+		});
+		
+		// When
+		favouriteCounterService.rebuild();
+		
+		// Then
+		assertEquals(4L, favouriteCounterService.count(100));
+	}
+	
+}
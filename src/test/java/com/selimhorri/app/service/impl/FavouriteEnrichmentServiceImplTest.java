@@ -0,0 +1,298 @@
+package com.selimhorri.app.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.config.client.ClientConfig;
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.Favourite;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.FavouriteExpansion;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FavouriteEnrichmentServiceImpl Unit Tests")
+class FavouriteEnrichmentServiceImplTest {
+	
+	@Mock
+	private RestTemplate restTemplate;
+	
+	private ExecutorService executor;
+	private EnrichmentProperties enrichmentProperties;
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+	private BulkheadRegistry bulkheadRegistry;
+	
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newFixedThreadPool(8);
+		enrichmentProperties = new EnrichmentProperties();
+		circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+		bulkheadRegistry = BulkheadRegistry.ofDefaults();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	@DisplayName("Should enrich every favourite with its user and product")
+	void testEnrich_Success() {
+		// Given
+		when(restTemplate.getForObject(any(String.class), eq(UserDto.class)))
+				.thenAnswer(inv -> UserDto.builder().userId(idOf(inv.getArgument(0))).firstName("John").build());
+		when(restTemplate.getForObject(any(String.class), eq(ProductDto.class)))
+				.thenAnswer(inv -> ProductDto.builder().productId(idOf(inv.getArgument(0))).productTitle("Phone").build());
+		final var service = enrichmentService();
+		
+		// When
+		List<FavouriteDto> result = service.enrich(favourites(20), FavouriteExpansion.ALL);
+		
+		// Then
+		assertEquals(20, result.size());
+		for (int i = 0; i < 20; i++) {
+			assertEquals(i, result.get(i).getUserDto().getUserId());
+			assertEquals("John", result.get(i).getUserDto().getFirstName());
+			assertEquals(100 + i, result.get(i).getProductDto().getProductId());
+			assertEquals("Phone", result.get(i).getProductDto().getProductTitle());
+		}
+	}
+	
+	@Test
+	@DisplayName("Should keep the fallback DTO when a lookup fails")
+	void testEnrich_LookupFailure() {
+		// Given
+		when(restTemplate.getForObject(any(String.class), eq(UserDto.class)))
+				.thenThrow(new ResourceAccessException("connection refused"));
+		when(restTemplate.getForObject(any(String.class), eq(ProductDto.class)))
+				.thenReturn(ProductDto.builder().productId(100).productTitle("Phone").build());
+		final var service = enrichmentService();
+		final List<FavouriteDto> favourites = favourites(1);
+		final UserDto stub = favourites.get(0).getUserDto();
+		
+		// When
+		List<FavouriteDto> result = service.enrich(favourites, FavouriteExpansion.ALL);
+		
+		// Then
+		assertSame(stub, result.get(0).getUserDto());
+		assertNull(result.get(0).getUserDto().getFirstName());
+		assertEquals("Phone", result.get(0).getProductDto().getProductTitle());
+	}
+	
+	@Test
+	@DisplayName("Should return within the deadline keeping fallback DTOs for slow lookups")
+	void testEnrich_DeadlineExceeded() {
+		// Given
+		enrichmentProperties.setDeadline(Duration.ofMillis(200));
+		when(restTemplate.getForObject(any(String.class), eq(UserDto.class)))
+				.thenAnswer(inv -> {
+					TimeUnit.SECONDS.sleep(5);
+					return UserDto.builder().firstName("late").build();
+				});
+		when(restTemplate.getForObject(any(String.class), eq(ProductDto.class)))
+				.thenReturn(ProductDto.builder().productTitle("Phone").build());
+		final var service = enrichmentService();
+		
+		// When
+		final long start = System.nanoTime();
+		List<FavouriteDto> result = service.enrich(favourites(2), FavouriteExpansion.ALL);
+		final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		
+		// Then
+		assertTrue(elapsedMillis < 2000, "enrichment should honour the deadline, took " + elapsedMillis + "ms");
+		assertNull(result.get(0).getUserDto().getFirstName());
+		assertEquals("Phone", result.get(0).getProductDto().getProductTitle());
+	}
+	
+	@Test
+	@DisplayName("Should cap in-flight lookups per downstream service")
+	void testEnrich_BoundedInFlight() {
+		// Given
+		bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(2).build());
+		final AtomicInteger inFlight = new AtomicInteger();
+		final AtomicInteger maxInFlight = new AtomicInteger();
+		when(restTemplate.getForObject(any(String.class), eq(UserDto.class)))
+				.thenAnswer(inv -> {
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					TimeUnit.MILLISECONDS.sleep(20);
+					inFlight.decrementAndGet();
+					return UserDto.builder().build();
+				});
+		when(restTemplate.getForObject(any(String.class), eq(ProductDto.class)))
+				.thenReturn(ProductDto.builder().build());
+		final var service = enrichmentService();
+		
+		// When
+		service.enrich(favourites(10), FavouriteExpansion.ALL);
+		
+		// Then
+		assertTrue(maxInFlight.get() <= 2, "at most 2 concurrent user lookups, saw " + maxInFlight.get());
+	}
+	
+	@Test
+	@DisplayName("Should fetch each distinct user and product only once")
+	void testEnrich_DeduplicatesLookups() {
+		// Given
+		final List<FavouriteDto> favourites = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			favourites.add(FavouriteMappingHelper.map(Favourite.builder()
+					.userId(1)
+					.productId(100 + i % 3)
+					.likeDate(LocalDateTime.of(2024, 1, 15, 10, 30, 0).plusSeconds(i))
+					.build()));
+		}
+		when(restTemplate.getForObject(any(String.class), eq(UserDto.class)))
+				.thenAnswer(inv -> UserDto.builder().userId(idOf(inv.getArgument(0))).firstName("John").build());
+		when(restTemplate.getForObject(any(String.class), eq(ProductDto.class)))
+				.thenAnswer(inv -> ProductDto.builder().productId(idOf(inv.getArgument(0))).build());
+		final var service = enrichmentService();
+		
+		// When
+		List<FavouriteDto> result = service.enrich(favourites, FavouriteExpansion.ALL);
+		
+		// Then
+		verify(restTemplate, times(1)).getForObject(
+				eq(AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/1"), eq(UserDto.class));
+		verify(restTemplate, times(3)).getForObject(any(String.class), eq(ProductDto.class));
+		assertEquals(300, result.size());
+		result.forEach(f -> {
+			assertEquals("John", f.getUserDto().getFirstName());
+			assertEquals(f.getProductId(), f.getProductDto().getProductId());
+		});
+	}
+	
+	@Test
+	@DisplayName("Should keep the stub DTOs without calling a service whose breaker is open")
+	void testEnrich_CircuitOpen() {
+		// Given
+		when(restTemplate.getForObject(any(String.class), eq(ProductDto.class)))
+				.thenReturn(ProductDto.builder().productTitle("Phone").build());
+		final var service = enrichmentService();
+		circuitBreakerRegistry.circuitBreaker(ClientConfig.USER_SERVICE).transitionToOpenState();
+		final List<FavouriteDto> favourites = favourites(5);
+		final UserDto stub = favourites.get(0).getUserDto();
+		
+		// When
+		List<FavouriteDto> result = service.enrich(favourites, FavouriteExpansion.ALL);
+		
+		// Then
+		assertSame(stub, result.get(0).getUserDto());
+		assertEquals("Phone", result.get(0).getProductDto().getProductTitle());
+		verify(restTemplate, never()).getForObject(any(String.class), eq(UserDto.class));
+	}
+	
+	@Test
+	@DisplayName("Should leave a single favourite unexpanded when its breaker is open and nothing is cached")
+	void testEnrichSingle_CircuitOpen() {
+		// Given
+		when(restTemplate.getForObject(any(String.class), eq(ProductDto.class)))
+				.thenReturn(ProductDto.builder().productTitle("Phone").build());
+		final var service = enrichmentService();
+		circuitBreakerRegistry.circuitBreaker(ClientConfig.USER_SERVICE).transitionToOpenState();
+		final FavouriteDto favourite = FavouriteMappingHelper.project(
+				new FavouriteId(1, 100, LocalDateTime.of(2024, 1, 15, 10, 30, 0)));
+		
+		// When
+		FavouriteDto result = service.enrich(favourite, FavouriteExpansion.ALL);
+		
+		// Then
+		assertNull(result.getUserDto());
+		assertEquals("Phone", result.getProductDto().getProductTitle());
+		verify(restTemplate, never()).getForObject(any(String.class), eq(UserDto.class));
+	}
+	
+	@Test
+	@DisplayName("Should return a pending future without blocking on slow lookups")
+	void testEnrichAsync_DoesNotBlock() throws Exception {
+		// Given
+		final CountDownLatch release = new CountDownLatch(1);
+		when(restTemplate.getForObject(any(String.class), eq(UserDto.class)))
+				.thenAnswer(inv -> {
+					release.await(5, TimeUnit.SECONDS);
+					return UserDto.builder().userId(idOf(inv.getArgument(0))).firstName("John").build();
+				});
+		when(restTemplate.getForObject(any(String.class), eq(ProductDto.class)))
+				.thenReturn(ProductDto.builder().productTitle("Phone").build());
+		final var service = enrichmentService();
+		
+		// When
+		final CompletableFuture<List<FavouriteDto>> result = service.enrichAsync(favourites(3), FavouriteExpansion.ALL);
+		
+		// Then
+		assertFalse(result.isDone());
+		release.countDown();
+		assertEquals("John", result.get(5, TimeUnit.SECONDS).get(0).getUserDto().getFirstName());
+	}
+	
+	private FavouriteEnrichmentServiceImpl enrichmentService() {
+		final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		final ClientConfig clientConfig = new ClientConfig();
+		return new FavouriteEnrichmentServiceImpl(
+				clientConfig.userNearCacheBean(
+						clientConfig.userLookupClientBean(restTemplate, executor, enrichmentProperties,
+								circuitBreakerRegistry, bulkheadRegistry, TimeLimiterRegistry.ofDefaults(), meterRegistry),
+						enrichmentProperties, meterRegistry),
+				clientConfig.productNearCacheBean(
+						clientConfig.productLookupClientBean(restTemplate, executor, enrichmentProperties,
+								circuitBreakerRegistry, bulkheadRegistry, TimeLimiterRegistry.ofDefaults(), meterRegistry),
+						enrichmentProperties, meterRegistry),
+				enrichmentProperties);
+	}
+	
+	private static List<FavouriteDto> favourites(final int count) {
+		final List<FavouriteDto> favourites = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			favourites.add(FavouriteMappingHelper.map(Favourite.builder()
+					.userId(i)
+					.productId(100 + i)
+					.likeDate(LocalDateTime.of(2024, 1, 15, 10, 30, 0))
+					.build()));
+		}
+		return favourites;
+	}
+	
+	private static Integer idOf(final String url) {
+		return Integer.valueOf(url.substring(url.lastIndexOf('/') + 1));
+	}
+	
+}
@@ -2,6 +2,7 @@ package com.selimhorri.app.service.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -11,29 +12,42 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.client.RestTemplate;
 
+import com.selimhorri.app.config.client.ClientConfig;
+import com.selimhorri.app.config.enrichment.EnrichmentProperties;
 import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.BulkResultDto;
 import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.FavouriteExpansion;
+import com.selimhorri.app.dto.FavouriteStateDto;
 import com.selimhorri.app.dto.ProductDto;
 import com.selimhorri.app.dto.UserDto;
 import com.selimhorri.app.exception.wrapper.FavouriteNotFoundException;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
 import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.FavouriteCounterService;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("FavouriteServiceImpl Unit Tests")
@@ -45,7 +59,9 @@ class FavouriteServiceImplTest {
 	@Mock
 	private RestTemplate restTemplate;
 	
-	@InjectMocks
+	@Mock
+	private FavouriteCounterService favouriteCounterService;
+	
 	private FavouriteServiceImpl favouriteService;
 	
 	private Favourite testFavourite;
@@ -57,6 +73,25 @@ class FavouriteServiceImplTest {
 	
 	@BeforeEach
 	void setUp() {
+		final EnrichmentProperties enrichmentProperties = new EnrichmentProperties();
+		final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+		final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+		final TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.ofDefaults();
+		final ClientConfig clientConfig = new ClientConfig();
+		favouriteService = new FavouriteServiceImpl(favouriteRepository,
+				new FavouriteEnrichmentServiceImpl(
+						clientConfig.userNearCacheBean(
+								clientConfig.userLookupClientBean(restTemplate, Runnable::run, enrichmentProperties,
+										circuitBreakerRegistry, bulkheadRegistry, timeLimiterRegistry, meterRegistry),
+								enrichmentProperties, meterRegistry),
+						clientConfig.productNearCacheBean(
+								clientConfig.productLookupClientBean(restTemplate, Runnable::run, enrichmentProperties,
+										circuitBreakerRegistry, bulkheadRegistry, timeLimiterRegistry, meterRegistry),
+								enrichmentProperties, meterRegistry),
+						enrichmentProperties),
+				favouriteCounterService);
+		
 		testLikeDate = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
 		
 		testFavouriteId = new FavouriteId(1, 100, testLikeDate);
@@ -105,7 +140,7 @@ class FavouriteServiceImplTest {
 				.thenReturn(testProductDto);
 		
 		// When
-		List<FavouriteDto> result = favouriteService.findAll();
+		List<FavouriteDto> result = favouriteService.findAll(FavouriteExpansion.ALL).join();
 		
 		// Then
 		assertNotNull(result);
@@ -130,7 +165,7 @@ class FavouriteServiceImplTest {
 		when(favouriteRepository.findAll()).thenReturn(Collections.emptyList());
 		
 		// When
-		List<FavouriteDto> result = favouriteService.findAll();
+		List<FavouriteDto> result = favouriteService.findAll(FavouriteExpansion.ALL).join();
 		
 		// Then
 		assertNotNull(result);
@@ -154,7 +189,7 @@ class FavouriteServiceImplTest {
 				.thenReturn(testProductDto);
 		
 		// When
-		FavouriteDto result = favouriteService.findById(testFavouriteId);
+		FavouriteDto result = favouriteService.findById(testFavouriteId, FavouriteExpansion.ALL).join();
 		
 		// Then
 		assertNotNull(result);
@@ -172,6 +207,42 @@ class FavouriteServiceImplTest {
 				eq(ProductDto.class));
 	}
 	
+	@Test
+	@DisplayName("Should return key-only favourites when no expansion is requested")
+	void testFindAll_NoExpansion() {
+		// Given
+		when(favouriteRepository.findAll()).thenReturn(List.of(testFavourite));
+		
+		// When
+		List<FavouriteDto> result = favouriteService.findAll(FavouriteExpansion.NONE).join();
+		
+		// Then
+		assertEquals(1, result.size());
+		assertEquals(1, result.get(0).getUserId());
+		assertNull(result.get(0).getUserDto());
+		assertNull(result.get(0).getProductDto());
+		verify(restTemplate, never()).getForObject(any(String.class), any(Class.class));
+	}
+	
+	@Test
+	@DisplayName("Should fetch only the requested expansion")
+	void testFindById_ProductExpansion() {
+		// Given
+		when(favouriteRepository.findById(testFavouriteId)).thenReturn(Optional.of(testFavourite));
+		when(restTemplate.getForObject(
+				eq(AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL + "/100"),
+				eq(ProductDto.class)))
+				.thenReturn(testProductDto);
+		
+		// When
+		FavouriteDto result = favouriteService.findById(testFavouriteId, Set.of(FavouriteExpansion.PRODUCT)).join();
+		
+		// Then
+		assertNull(result.getUserDto());
+		assertEquals(testProductDto, result.getProductDto());
+		verify(restTemplate, never()).getForObject(any(String.class), eq(UserDto.class));
+	}
+	
 	@Test
 	@DisplayName("Should throw FavouriteNotFoundException when favourite not found")
 	void testFindById_NotFound() {
@@ -182,7 +253,7 @@ class FavouriteServiceImplTest {
 		// When & Then
 		FavouriteNotFoundException exception = assertThrows(
 				FavouriteNotFoundException.class,
-				() -> favouriteService.findById(nonExistentId)
+				() -> favouriteService.findById(nonExistentId, FavouriteExpansion.ALL)
 		);
 		
 		assertTrue(exception.getMessage().contains("Favourite with id: [" + nonExistentId + "] not found!"));
@@ -191,7 +262,7 @@ class FavouriteServiceImplTest {
 	}
 	
 	@Test
-	@DisplayName("Should save favourite successfully")
+	@DisplayName("Should save favourite with a single insert")
 	void testSave_Success() {
 		// Given
 		FavouriteDto newFavouriteDto = FavouriteDto.builder()
@@ -200,13 +271,7 @@ class FavouriteServiceImplTest {
 				.likeDate(testLikeDate)
 				.build();
 		
-		Favourite savedFavourite = Favourite.builder()
-				.userId(2)
-				.productId(200)
-				.likeDate(testLikeDate)
-				.build();
-		
-		when(favouriteRepository.save(any(Favourite.class))).thenReturn(savedFavourite);
+		when(favouriteRepository.insertIfAbsent(eq(2), eq(200), eq(testLikeDate), any(Instant.class))).thenReturn(1);
 		
 		// When
 		FavouriteDto result = favouriteService.save(newFavouriteDto);
@@ -216,11 +281,13 @@ class FavouriteServiceImplTest {
 		assertEquals(2, result.getUserId());
 		assertEquals(200, result.getProductId());
 		assertEquals(testLikeDate, result.getLikeDate());
-		verify(favouriteRepository, times(1)).save(any(Favourite.class));
+		verify(favouriteRepository, never()).touch(any(), any(), any(), any());
+		verify(favouriteRepository, never()).save(any(Favourite.class));
+		verify(favouriteCounterService, times(1)).increment(200);
 	}
 	
 	@Test
-	@DisplayName("Should update favourite successfully")
+	@DisplayName("Should update favourite with a single update")
 	void testUpdate_Success() {
 		// Given
 		FavouriteDto updatedFavouriteDto = FavouriteDto.builder()
@@ -229,13 +296,7 @@ class FavouriteServiceImplTest {
 				.likeDate(testLikeDate)
 				.build();
 		
-		Favourite updatedFavourite = Favourite.builder()
-				.userId(1)
-				.productId(100)
-				.likeDate(testLikeDate)
-				.build();
-		
-		when(favouriteRepository.save(any(Favourite.class))).thenReturn(updatedFavourite);
+		when(favouriteRepository.touch(eq(1), eq(100), eq(testLikeDate), any(Instant.class))).thenReturn(1);
 		
 		// When
 		FavouriteDto result = favouriteService.update(updatedFavouriteDto);
@@ -244,20 +305,119 @@ class FavouriteServiceImplTest {
 		assertNotNull(result);
 		assertEquals(1, result.getUserId());
 		assertEquals(100, result.getProductId());
-		verify(favouriteRepository, times(1)).save(any(Favourite.class));
+		verify(favouriteRepository, never()).insertIfAbsent(any(), any(), any(), any());
+		verify(favouriteRepository, never()).save(any(Favourite.class));
+		verify(favouriteCounterService, never()).increment(any());
 	}
 	
 	@Test
-	@DisplayName("Should delete favourite by id successfully")
+	@DisplayName("Should delete favourite by id with a single delete")
 	void testDeleteById_Success() {
 		// Given
-		// No need to mock anything for delete
+		when(favouriteRepository.deleteByKey(1, 100, testLikeDate)).thenReturn(1);
 		
 		// When
 		favouriteService.deleteById(testFavouriteId);
 		
 		// Then
-		verify(favouriteRepository, times(1)).deleteById(testFavouriteId);
+		verify(favouriteRepository, never()).deleteById(any());
+		verify(favouriteCounterService, times(1)).decrement(100);
+	}
+	
+	@Test
+	@DisplayName("Should throw FavouriteNotFoundException when deleting a missing favourite")
+	void testDeleteById_NotFound() {
+		// Given
+		when(favouriteRepository.deleteByKey(1, 100, testLikeDate)).thenReturn(0);
+		
+		// When & Then
+		assertThrows(FavouriteNotFoundException.class, () -> favouriteService.deleteById(testFavouriteId));
+		verify(favouriteCounterService, never()).decrement(any());
+	}
+	
+	@Test
+	@DisplayName("Should report a status per item and count only inserted rows on bulk save")
+	void testSaveAll_PerItemResults() {
+		// Given
+		FavouriteDto invalid = FavouriteDto.builder().userId(2).likeDate(testLikeDate).build();
+		when(favouriteRepository.batchInsertIfAbsent(List.of(testFavouriteId, testFavouriteId)))
+				.thenReturn(new int[] { 1, 0 });
+		
+		// When
+		List<BulkResultDto> results = favouriteService.saveAll(
+				Arrays.asList(testFavouriteDto, invalid, testFavouriteDto));
+		
+		// Then
+		assertEquals(3, results.size());
+		assertEquals(BulkResultDto.Status.CREATED, results.get(0).getStatus());
+		assertEquals(BulkResultDto.Status.INVALID, results.get(1).getStatus());
+		assertEquals(BulkResultDto.Status.DUPLICATE, results.get(2).getStatus());
+		assertEquals(2, results.get(2).getIndex());
+		verify(favouriteCounterService, times(1)).adjust(100, 1L);
+	}
+	
+	@Test
+	@DisplayName("Should not count a favourite again when saving an existing row")
+	void testSave_ExistingRowNotCounted() {
+		// Given
+		when(favouriteRepository.insertIfAbsent(eq(1), eq(100), eq(testLikeDate), any(Instant.class))).thenReturn(0);
+		when(favouriteRepository.touch(eq(1), eq(100), eq(testLikeDate), any(Instant.class))).thenReturn(1);
+		
+		// When
+		favouriteService.save(FavouriteMappingHelper.map(testFavourite));
+		
+		// Then
+		verify(favouriteCounterService, never()).increment(any());
+	}
+	
+	@Test
+	@DisplayName("Should insert and count a favourite that an update does not find")
+	void testUpdate_MissingRowInserted() {
+		// Given
+		when(favouriteRepository.touch(eq(1), eq(100), eq(testLikeDate), any(Instant.class))).thenReturn(0);
+		when(favouriteRepository.insertIfAbsent(eq(1), eq(100), eq(testLikeDate), any(Instant.class))).thenReturn(1);
+		
+		// When
+		favouriteService.update(FavouriteMappingHelper.map(testFavourite));
+		
+		// Then
+		verify(favouriteCounterService, times(1)).increment(100);
+	}
+	
+	@Test
+	@DisplayName("Should count a like only when it inserts a row")
+	void testLike_CountsOnlyInsert() {
+		// Given
+		when(favouriteRepository.insertLikeIfAbsent(eq(1), eq(100), any(Instant.class)))
+				.thenReturn(true)
+				.thenReturn(false);
+		when(favouriteRepository.existsByUserIdAndProductId(1, 100)).thenReturn(true);
+		when(favouriteRepository.insertIfNotLiked(eq(1), eq(100), any(LocalDateTime.class), any(Instant.class))).thenReturn(1);
+		
+		// When
+		FavouriteStateDto first = favouriteService.like(1, 100);
+		FavouriteStateDto second = favouriteService.like(1, 100);
+		
+		// Then
+		assertTrue(first.isLiked() && first.isChanged());
+		assertTrue(second.isLiked() && !second.isChanged());
+		verify(favouriteRepository, never()).deleteLikeIfNoFavourite(1, 100);
+		verify(favouriteRepository, times(1)).insertIfNotLiked(eq(1), eq(100), any(LocalDateTime.class), any(Instant.class));
+		verify(favouriteCounterService, times(1)).increment(100);
+	}
+	
+	@Test
+	@DisplayName("Should uncount every favourite an unlike removes")
+	void testUnlike_RemovesAllOfPair() {
+		// Given
+		when(favouriteRepository.deleteAllByUserIdAndProductId(1, 100)).thenReturn(2);
+		
+		// When
+		FavouriteStateDto result = favouriteService.unlike(1, 100);
+		
+		// Then
+		assertTrue(!result.isLiked() && result.isChanged());
+		verify(favouriteCounterService, times(1)).adjust(100, -2L);
 	}
 	
 	@Test
@@ -302,7 +462,7 @@ class FavouriteServiceImplTest {
 				.thenReturn(productDto2);
 		
 		// When
-		List<FavouriteDto> result = favouriteService.findAll();
+		List<FavouriteDto> result = favouriteService.findAll(FavouriteExpansion.ALL).join();
 		
 		// Then
 		assertNotNull(result);
@@ -0,0 +1,200 @@
+package com.selimhorri.app.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import com.selimhorri.app.config.writebehind.WriteBehindProperties;
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.exception.wrapper.WriteBacklogFullException;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
+import com.selimhorri.app.journal.FavouriteJournal;
+import com.selimhorri.app.service.FavouriteService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FavouriteWriteBehindServiceImpl Unit Tests")
+class FavouriteWriteBehindServiceImplTest {
+	
+	@TempDir
+	Path journalDir;
+	
+	@Mock
+	private FavouriteService favouriteService;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	private WriteBehindProperties properties;
+	private FavouriteWriteBehindServiceImpl writeBehindService;
+	
+	private final FavouriteId liked = new FavouriteId(1, 100, LocalDateTime.of(2024, 1, 15, 10, 30));
+	private final FavouriteId unliked = new FavouriteId(2, 200, LocalDateTime.of(2024, 1, 15, 10, 31));
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		properties = new WriteBehindProperties();
+		properties.setEnabled(true);
+		properties.setJournalDir(journalDir);
+		properties.setSync(false);
+		// Flushes run when the test asks for them
+		properties.setFlushInterval(Duration.ofHours(1));
+		writeBehindService = writeBehindService();
+	}
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		writeBehindService.stop();
+	}
+	
+	@Test
+	@DisplayName("Should cancel adds removed before any flush and apply the last write")
+	void testFlush_MergesWrites() {
+		// Given
+		writeBehindService.add(liked);
+		writeBehindService.add(unliked);
+		writeBehindService.remove(unliked);
+		writeBehindService.remove(liked);
+		writeBehindService.add(liked);
+		
+		// When
+		int flushed = writeBehindService.flush();
+		
+		// Then
+		assertEquals(1, flushed);
+		assertEquals(0, writeBehindService.pending());
+		verify(favouriteService).saveAll(List.of(FavouriteMappingHelper.project(liked)));
+		verify(favouriteService, never()).deleteAllById(anyList());
+	}
+	
+	@Test
+	@DisplayName("Should flush updates one by one through the service update")
+	void testFlush_Updates() {
+		// Given
+		writeBehindService.add(liked);
+		writeBehindService.update(liked);
+		writeBehindService.add(liked);
+		
+		// When
+		int flushed = writeBehindService.flush();
+		
+		// Then
+		assertEquals(1, flushed);
+		verify(favouriteService).update(FavouriteMappingHelper.project(liked));
+		verify(favouriteService, never()).saveAll(anyList());
+	}
+	
+	@Test
+	@DisplayName("Should not cancel an add that a failed flush may have written")
+	void testFlush_FailureKeepsRemoves() {
+		// Given
+		when(favouriteService.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+		writeBehindService.add(liked);
+		assertThrows(IllegalStateException.class, writeBehindService::flush);
+		
+		// When
+		writeBehindService.remove(liked);
+		int flushed = writeBehindService.flush();
+		
+		// Then
+		assertEquals(1, flushed);
+		verify(favouriteService).deleteAllById(List.of(liked));
+	}
+	
+	@Test
+	@DisplayName("Should keep writes and their journal when a flush fails")
+	void testFlush_FailureKeepsWrites() throws Exception {
+		// Given
+		when(favouriteService.saveAll(anyList()))
+				.thenThrow(new IllegalStateException("database down"))
+				.thenReturn(List.of());
+		writeBehindService.add(liked);
+		
+		// When
+		assertThrows(IllegalStateException.class, writeBehindService::flush);
+		writeBehindService.remove(unliked);
+		
+		// Then
+		assertEquals(2, writeBehindService.pending());
+		assertEquals(2, writeBehindService.flush());
+		assertEquals(0, writeBehindService.pending());
+		assertEquals(0, writeBehindService.flush());
+	}
+	
+	@Test
+	@DisplayName("Should replay unflushed writes on startup")
+	void testStart_ReplaysJournal() throws Exception {
+		// Given - a run that stops before flushing
+		writeBehindService.add(liked);
+		writeBehindService.remove(unliked);
+		
+		// When
+		final FavouriteWriteBehindServiceImpl restarted = writeBehindService();
+		
+		// Then
+		assertEquals(2, restarted.pending());
+		assertEquals(2, restarted.flush());
+		verify(favouriteService).saveAll(List.of(FavouriteMappingHelper.project(liked)));
+		verify(favouriteService).deleteAllById(List.of(unliked));
+		restarted.stop();
+	}
+	
+	@Test
+	@DisplayName("Should not cancel replayed adds, which may have been written")
+	void testStart_ReplayedAddsStay() throws Exception {
+		// Given - a run that stops before flushing
+		writeBehindService.add(liked);
+		final FavouriteWriteBehindServiceImpl restarted = writeBehindService();
+		
+		// When
+		restarted.remove(liked);
+		
+		// Then
+		assertEquals(1, restarted.flush());
+		verify(favouriteService).deleteAllById(List.of(liked));
+		restarted.stop();
+	}
+	
+	@Test
+	@DisplayName("Should turn writers away while the journal stays full")
+	void testAdd_Backpressure() {
+		// Given
+		properties.setMaxJournalSize(DataSize.ofBytes(FavouriteJournal.RECORD_SIZE));
+		properties.setBackpressureTimeout(Duration.ofMillis(50));
+		when(favouriteService.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+		writeBehindService.add(liked);
+		
+		// When & Then
+		assertThrows(WriteBacklogFullException.class, () -> writeBehindService.remove(unliked));
+		assertEquals(1, writeBehindService.pending());
+		verify(favouriteService, never()).deleteAllById(anyList());
+	}
+	
+	private FavouriteWriteBehindServiceImpl writeBehindService() throws Exception {
+		final FavouriteWriteBehindServiceImpl service = new FavouriteWriteBehindServiceImpl(
+				properties, favouriteService, transactionManager, new SimpleMeterRegistry());
+		service.start();
+		return service;
+	}
+	
+}
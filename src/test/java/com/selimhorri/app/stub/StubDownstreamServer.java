@@ -0,0 +1,189 @@
+package com.selimhorri.app.stub;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process stand-in for USER-SERVICE and PRODUCT-SERVICE answering single-id lookups
+ * on an ephemeral local port, with configurable latency and error injection.
+ */
+public final class StubDownstreamServer implements AutoCloseable {
+	
+	private static final String USERS_PATH = "/user-service/api/users/";
+	private static final String PRODUCTS_PATH = "/product-service/api/products/";
+	
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final AtomicLong requests = new AtomicLong();
+	private volatile Duration latency = Duration.ZERO;
+	private volatile Duration jitter = Duration.ZERO;
+	private volatile double errorRate;
+	
+	private StubDownstreamServer(final HttpServer server, final ExecutorService executor) {
+		this.server = server;
+		this.executor = executor;
+	}
+	
+	public static StubDownstreamServer start() throws IOException {
+		final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+			final Thread thread = new Thread(r, "stub-downstream");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final StubDownstreamServer stub = new StubDownstreamServer(server, executor);
+		server.createContext("/", stub::handle);
+		server.setExecutor(executor);
+		server.start();
+		return stub;
+	}
+	
+	public int port() {
+		return this.server.getAddress().getPort();
+	}
+	
+	public long requests() {
+		return this.requests.get();
+	}
+	
+	/**
+	 * Delays every response by {@code latency} plus a uniformly random share of {@code jitter}.
+	 */
+	public StubDownstreamServer latency(final Duration latency, final Duration jitter) {
+		this.latency = latency;
+		this.jitter = jitter;
+		return this;
+	}
+	
+	/**
+	 * Answers the given share of requests with a 503.
+	 */
+	public StubDownstreamServer errorRate(final double errorRate) {
+		this.errorRate = errorRate;
+		return this;
+	}
+	
+	/**
+	 * A RestTemplate sending the discovered service hosts ({@code USER-SERVICE},
+	 * {@code PRODUCT-SERVICE}) to this server, as the load balancer would to real instances.
+	 */
+	public RestTemplate restTemplate() {
+		return this.restTemplate(new SimpleClientHttpRequestFactory());
+	}
+	
+	public RestTemplate restTemplate(final ClientHttpRequestFactory requestFactory) {
+		final RestTemplate restTemplate = new RestTemplate(requestFactory);
+		restTemplate.getInterceptors().add(this.rewriteHost());
+		return restTemplate;
+	}
+	
+	public ClientHttpRequestInterceptor rewriteHost() {
+		final int port = this.port();
+		return (request, body, execution) -> execution.execute(new HttpRequestWrapper(request) {
+			@Override
+			public URI getURI() {
+				return UriComponentsBuilder.fromUri(super.getURI())
+						.scheme("http")
+						.host("localhost")
+						.port(port)
+						.build(true)
+						.toUri();
+			}
+		}, body);
+	}
+	
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+	
+	private void handle(final HttpExchange exchange) throws IOException {
+		this.requests.incrementAndGet();
+		try (exchange) {
+			this.delay();
+			if (this.errorRate > 0 && ThreadLocalRandom.current().nextDouble() < this.errorRate) {
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+			
+			final String path = exchange.getRequestURI().getPath();
+			final String body;
+			if (path.startsWith(USERS_PATH))
+				body = user(path.substring(USERS_PATH.length()));
+			else if (path.startsWith(PRODUCTS_PATH))
+				body = product(path.substring(PRODUCTS_PATH.length()));
+			else
+				body = null;
+			if (body == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			
+			final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+	}
+	
+	private void delay() {
+		final long nanos = this.latency.toNanos() + (this.jitter.isZero()
+				? 0L
+				: ThreadLocalRandom.current().nextLong(this.jitter.toNanos()));
+		if (nanos <= 0)
+			return;
+		try {
+			Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static String user(final String id) {
+		if (!isId(id))
+			return null;
+		return "{\"userId\":" + id + ",\"firstName\":\"First" + id + "\",\"lastName\":\"Last" + id
+				+ "\",\"imageUrl\":\"https://img.example.com/users/" + id + ".png\",\"email\":\"user" + id
+				+ "@example.com\",\"phone\":\"+1000000" + id + "\"}";
+	}
+	
+	private static String product(final String id) {
+		if (!isId(id))
+			return null;
+		return "{\"productId\":" + id + ",\"productTitle\":\"Product " + id
+				+ "\",\"imageUrl\":\"https://img.example.com/products/" + id + ".png\",\"sku\":\"SKU-" + id
+				+ "\",\"priceUnit\":19.99,\"quantity\":10}";
+	}
+	
+	private static boolean isId(final String value) {
+		if (value.isEmpty() || value.length() > 9)
+			return false;
+		for (int i = 0; i < value.length(); i++)
+			if (!Character.isDigit(value.charAt(i)))
+				return false;
+		return true;
+	}
+	
+}
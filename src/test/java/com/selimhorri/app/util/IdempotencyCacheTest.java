@@ -0,0 +1,57 @@
+package com.selimhorri.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.selimhorri.app.exception.wrapper.IdempotencyKeyReusedException;
+
+@DisplayName("IdempotencyCache Unit Tests")
+class IdempotencyCacheTest {
+	
+	private final AtomicInteger calls = new AtomicInteger();
+	
+	@Test
+	@DisplayName("Should run a call once per key and replay its outcome")
+	void testExecute_ReplaysOutcome() {
+		// Given
+		final IdempotencyCache<Integer> cache = new IdempotencyCache<>(Duration.ofMinutes(1), 10);
+		
+		// When
+		final int first = cache.execute("key", "request", calls::incrementAndGet);
+		final int retry = cache.execute("key", "request", calls::incrementAndGet);
+		final int unkeyed = cache.execute(null, "request", calls::incrementAndGet);
+		
+		// Then
+		assertEquals(1, first);
+		assertEquals(1, retry);
+		assertEquals(2, unkeyed);
+		assertThrows(IdempotencyKeyReusedException.class,
+				() -> cache.execute("key", "another request", calls::incrementAndGet));
+	}
+	
+	@Test
+	@DisplayName("Should forget failed calls and evict the least recently used keys")
+	void testExecute_FailureAndEviction() {
+		// Given
+		final IdempotencyCache<Integer> cache = new IdempotencyCache<>(Duration.ofMinutes(1), 2);
+		
+		// When
+		assertThrows(IllegalStateException.class, () -> cache.execute("failed", "request", () -> {
+			throw new IllegalStateException("database down");
+		}));
+		cache.execute("failed", "request", calls::incrementAndGet);
+		cache.execute("second", "request", calls::incrementAndGet);
+		cache.execute("third", "request", calls::incrementAndGet);
+		
+		// Then
+		assertEquals(2, cache.size());
+		assertEquals(4, cache.execute("failed", "request", calls::incrementAndGet));
+	}
+	
+}
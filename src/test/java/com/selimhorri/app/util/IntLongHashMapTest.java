@@ -0,0 +1,72 @@
+package com.selimhorri.app.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("IntLongHashMap Unit Tests")
+class IntLongHashMapTest {
+	
+	@Test
+	@DisplayName("Should read absent keys as zero")
+	void testGet_Absent() {
+		IntLongHashMap map = new IntLongHashMap();
+		
+		assertEquals(0L, map.get(42));
+		assertFalse(map.containsKey(42));
+		assertEquals(0, map.size());
+	}
+	
+	@Test
+	@DisplayName("Should add deltas and overwrite values")
+	void testAddToAndPut() {
+		IntLongHashMap map = new IntLongHashMap();
+		
+		assertEquals(1L, map.addTo(7, 1L));
+		assertEquals(3L, map.addTo(7, 2L));
+		map.put(-7, 10L);
+		map.put(0, 5L);
+		
+		assertEquals(3L, map.get(7));
+		assertEquals(10L, map.get(-7));
+		assertEquals(5L, map.get(0));
+		assertTrue(map.containsKey(0));
+		assertEquals(3, map.size());
+	}
+	
+	@Test
+	@DisplayName("Should agree with a HashMap across many random updates and resizes")
+	void testRandomUpdates_MatchHashMap() {
+		IntLongHashMap map = new IntLongHashMap(4);
+		Map<Integer, Long> expected = new HashMap<>();
+		Random random = new Random(42);
+		
+		for (int i = 0; i < 100_000; i++) {
+			int key = random.nextInt(5_000) - 2_500;
+			long delta = random.nextInt(3) - 1;
+			map.addTo(key, delta);
+			expected.merge(key, delta, Long::sum);
+		}
+		
+		assertEquals(expected.size(), map.size());
+		expected.forEach((key, value) -> assertEquals(value.longValue(), map.get(key)));
+		map.forEach((key, value) -> assertEquals(expected.get(key).longValue(), value));
+	}
+	
+	@Test
+	@DisplayName("Should reject the reserved key")
+	void testReservedKey() {
+		IntLongHashMap map = new IntLongHashMap();
+		
+		assertThrows(IllegalArgumentException.class, () -> map.put(Integer.MIN_VALUE, 1L));
+	}
+	
+}
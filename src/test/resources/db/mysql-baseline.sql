@@ -0,0 +1,10 @@
+-- The favourites table as existing MySQL databases hold it. V1 is written for H2, so on
+-- MySQL Flyway starts from this table and a baseline at version 1
+CREATE TABLE favourites (
+	user_id INT NOT NULL,
+	product_id INT NOT NULL,
+	like_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+	created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+	updated_at TIMESTAMP NULL,
+	PRIMARY KEY (user_id, product_id, like_date)
+);